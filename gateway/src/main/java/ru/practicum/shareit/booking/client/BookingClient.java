@@ -5,12 +5,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.dto.IncomingBookingDto;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,48 +22,77 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         HttpComponentsClientHttpRequestFactory shareItServerRequestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> shareItServerRequestFactory)
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getBookingsByState(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<byte[]> getBookingsByState(long userId, BookingState state, Integer from, Integer size,
+                                                                    @Nullable String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return get("?state={state}&from={from}&size={size}" + afterParameter(after, parameters), userId, parameters);
     }
 
 
-    public ResponseEntity<Object> createBooking(long userId, IncomingBookingDto requestDto) {
+    public ResponseEntity<byte[]> createBooking(long userId, IncomingBookingDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBookingById(long userId, Long bookingId) {
+    public ResponseEntity<byte[]> createBookings(long userId, List<IncomingBookingDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
+    }
+
+    public ResponseEntity<byte[]> getBookingById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> updateBookingApproval(long userId, Long bookingId, boolean approved) {
+    public ResponseEntity<byte[]> updateBookingApproval(long userId, Long bookingId, boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> getBookingsByOwnerAndState(long ownerId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<byte[]> getBookingsByOwnerAndState(long ownerId, BookingState state, Integer from, Integer size,
+                                                                            @Nullable String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
+        ));
+        return get("/owner?state={state}&from={from}&size={size}" + afterParameter(after, parameters), ownerId, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportBookingsByState(long userId, BookingState state) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name()
+        );
+        return getNdjson("/export?state={state}", userId, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportBookingsByOwnerAndState(long ownerId, BookingState state) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name()
         );
-        return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
+        return getNdjson("/owner/export?state={state}", ownerId, parameters);
     }
 
+    // keyset cursor is only forwarded when the client asked for it, otherwise the server pages by offset
+    private static String afterParameter(@Nullable String after, Map<String, Object> parameters) {
+        if (after == null) {
+            return "";
+        }
+        parameters.put("after", after);
+        return "&after={after}";
+    }
 
 }
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.client.BookingClient;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.dto.IncomingBookingDto;
@@ -13,6 +14,7 @@ import ru.practicum.shareit.util.exception.BadRequestException;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -21,13 +23,15 @@ import java.time.LocalDateTime;
 @Validated
 public class BookingController {
 
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BookingClient bookingClient;
 
 
     // POST /bookings
     @PostMapping
-    public ResponseEntity<Object> createBooking(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                                @RequestBody IncomingBookingDto incomingBookingDto) {
+    public ResponseEntity<byte[]> createBooking(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                               @RequestBody IncomingBookingDto incomingBookingDto) {
         log.debug("Creating booking {}, userId={}", incomingBookingDto, userId);
         if (!isValidBooking(incomingBookingDto)) {
             throw new BadRequestException("Invalid booking: " + incomingBookingDto);
@@ -35,11 +39,27 @@ public class BookingController {
         return bookingClient.createBooking(userId, incomingBookingDto);
     }
 
+    // POST /bookings/batch
+    @PostMapping("/batch")
+    public ResponseEntity<byte[]> createBookings(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                @RequestBody List<IncomingBookingDto> incomingBookingDtos) {
+        log.debug("Creating {} bookings, userId={}", incomingBookingDtos.size(), userId);
+        if (incomingBookingDtos.isEmpty() || incomingBookingDtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch must contain from 1 to " + MAX_BATCH_SIZE + " bookings");
+        }
+        for (int i = 0; i < incomingBookingDtos.size(); i++) {
+            if (!isValidBooking(incomingBookingDtos.get(i))) {
+                throw new BadRequestException("Invalid booking #" + i + ": " + incomingBookingDtos.get(i));
+            }
+        }
+        return bookingClient.createBookings(userId, incomingBookingDtos);
+    }
+
     // PATCH /bookings/{bookingId}?approved={approved}
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> updateBookingApproval(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                                        @Positive @PathVariable Long bookingId,
-                                                        @RequestParam Boolean approved) {
+    public ResponseEntity<byte[]> updateBookingApproval(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                       @Positive @PathVariable Long bookingId,
+                                                                       @RequestParam Boolean approved) {
 
         log.debug("Update booking approval {}, userId={}", bookingId, userId);
         return bookingClient.updateBookingApproval(userId, bookingId, approved);
@@ -47,34 +67,58 @@ public class BookingController {
 
     // GET /bookings/{bookingId}
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBookingById(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                                 @Positive @PathVariable Long bookingId) {
+    public ResponseEntity<byte[]> getBookingById(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                @Positive @PathVariable Long bookingId) {
         log.debug("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBookingById(userId, bookingId);
     }
 
     // GET /bookings?state={state}&from={from}&size={size}
+    // GET /bookings?state={state}&after={startTime,id}&size={size}
     @GetMapping
-    public ResponseEntity<Object> getBookingsByState(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                                     @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
-                                                     @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                     @Positive @RequestParam(defaultValue = "100") Integer size) {
+    public ResponseEntity<byte[]> getBookingsByState(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                    @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                                                                    @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                                    @Positive @RequestParam(defaultValue = "100") Integer size,
+                                                                    @RequestParam(required = false) String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new BadRequestException("Unknown state: " + stateParam));
-        log.debug("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookingsByState(userId, state, from, size);
+        log.debug("Get booking with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size, after);
+        return bookingClient.getBookingsByState(userId, state, from, size, after);
     }
 
     // GET /bookings/owner?state={state}&from={from}&size={size}
+    // GET /bookings/owner?state={state}&after={startTime,id}&size={size}
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsByOwnerAndState(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
-                                                             @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
-                                                             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                             @Positive @RequestParam(defaultValue = "100") Integer size) {
+    public ResponseEntity<byte[]> getBookingsByOwnerAndState(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
+                                                                            @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                                                                            @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                                            @Positive @RequestParam(defaultValue = "100") Integer size,
+                                                                            @RequestParam(required = false) String after) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new BadRequestException("Unknown state: " + stateParam));
+        log.debug("Get booking with state {}, ownerId={}, from={}, size={}, after={}", stateParam, ownerId, from, size, after);
+        return bookingClient.getBookingsByOwnerAndState(ownerId, state, from, size, after);
+    }
+
+    // GET /bookings/export?state={state}
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByState(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                       @RequestParam(name = "state", defaultValue = "ALL") String stateParam) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new BadRequestException("Unknown state: " + stateParam));
+        log.debug("Export bookings with state {}, userId={}", stateParam, userId);
+        return bookingClient.exportBookingsByState(userId, state);
+    }
+
+    // GET /bookings/owner/export?state={state}
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByOwnerAndState(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
+                                                                               @RequestParam(name = "state", defaultValue = "ALL") String stateParam) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new BadRequestException("Unknown state: " + stateParam));
-        log.debug("Get booking with state {}, ownerId={}, from={}, size={}", stateParam, ownerId, from, size);
-        return bookingClient.getBookingsByOwnerAndState(ownerId, state, from, size);
+        log.debug("Export bookings with state {}, ownerId={}", stateParam, ownerId);
+        return bookingClient.exportBookingsByOwnerAndState(ownerId, state);
     }
 
     private boolean isValidBooking(IncomingBookingDto incomingBookingDto) {
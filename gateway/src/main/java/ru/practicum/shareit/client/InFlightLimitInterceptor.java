@@ -0,0 +1,102 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import ru.practicum.shareit.util.exception.ServiceUnavailableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// bounds the number of requests to the server in flight at once; a request that cannot get a slot in time
+// is rejected with 503 instead of queueing on the pool, a slot is held until the streamed response is closed
+@Slf4j
+public class InFlightLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Semaphore slots;
+    private final long waitTimeoutNanos;
+
+    public InFlightLimitInterceptor(int maxInFlight, Duration waitTimeout) {
+        this.slots = new Semaphore(maxInFlight);
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        try {
+            if (!slots.tryAcquire(waitTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                log.warn("Too many requests in flight, rejecting {} {}", request.getMethod(), request.getURI());
+                throw new ServiceUnavailableException("ShareIt server is busy, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for ShareIt server");
+        }
+
+        try {
+            return new SlotReleasingResponse(execution.execute(request, body));
+        } catch (IOException | RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    int availableSlots() {
+        return slots.availablePermits();
+    }
+
+    private class SlotReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        SlotReleasingResponse(ClientHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    slots.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("shareit-server")
+public class ShareItServerProperties {
+
+    // base url of the shareit server
+    private String url;
+
+    // connections to the server shared by all clients
+    private int maxConnections = 200;
+
+    // every client talks to the same route, so by default it may use the whole pool
+    private int maxConnectionsPerRoute = 200;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    // how long a request waits for a free pooled connection
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    // used when the server sends no Keep-Alive header
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    // connections idle for longer are closed by a background thread
+    private Duration maxIdleTime = Duration.ofSeconds(60);
+
+    // pooled connections idle for longer are checked before reuse
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    // requests to the server in progress at once, including the time their responses are streamed back
+    private int maxInFlight = 200;
+
+    // how long a request waits for a free slot before the gateway answers 503
+    private Duration inFlightWaitTimeout = Duration.ofMillis(500);
+
+    // exports streamed back to callers at once, each holds a thread of its own until the last line is copied
+    private int maxStreams = 16;
+
+    // longest an export may take before the gateway gives up on it
+    private Duration streamTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// streamed exports are copied to the caller on threads of their own, ordinary responses never get here;
+// every queued export already holds an in-flight slot, so a queue as deep as the slots never rejects a task
+// (a rejected one would keep its server connection open)
+@Configuration
+@RequiredArgsConstructor
+public class StreamingConfig implements WebMvcConfigurer {
+
+    private final ShareItServerProperties properties;
+
+    @Bean
+    public ThreadPoolTaskExecutor shareItStreamingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getMaxStreams());
+        executor.setMaxPoolSize(properties.getMaxStreams());
+        executor.setQueueCapacity(properties.getMaxInFlight());
+        executor.setThreadNamePrefix("shareit-stream-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(shareItStreamingExecutor());
+        configurer.setDefaultTimeout(properties.getStreamTimeout().toMillis());
+    }
+}
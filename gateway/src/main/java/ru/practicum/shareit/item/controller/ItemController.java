@@ -2,7 +2,9 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.dto.CommentDto;
@@ -11,19 +13,21 @@ import ru.practicum.shareit.util.exception.ValidationException;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
 
 @Slf4j
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
+@Validated
 public class ItemController {
 
     private final ItemClient itemClient;
 
     @PostMapping()
-    public ResponseEntity<Object> addItem(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
-                                          @RequestBody ItemDto itemDto) {
+    public ResponseEntity<byte[]> addItem(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
+                                                         @RequestBody ItemDto itemDto) {
         log.debug("Received POST request to /items endpoint with userId={} and {}", ownerId, itemDto);
         if (!isValidItem(itemDto)) {
             throw new ValidationException("Invalid item: " + itemDto);
@@ -32,54 +36,77 @@ public class ItemController {
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
-                                             @RequestBody ItemDto itemDto,
-                                             @Positive @PathVariable Long itemId) {
+    public ResponseEntity<byte[]> updateItem(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
+                                                            @RequestBody ItemDto itemDto,
+                                                            @Positive @PathVariable Long itemId) {
         log.debug("Received PATCH request to /items/{} endpoint with userId={} and {}", itemId, ownerId, itemDto);
         return itemClient.update(ownerId, itemId, itemDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAllItems(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                               @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                               @Positive @RequestParam(defaultValue = "100") Integer size) {
+    public ResponseEntity<byte[]> findAllItems(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                              @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                              @Positive @RequestParam(defaultValue = "100") Integer size) {
         log.debug("Received GET request to /items endpoint with userId={}", userId);
         return itemClient.findAll(userId, from, size);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> findItemById(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                               @Positive @PathVariable Long itemId) {
+    public ResponseEntity<byte[]> findItemById(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                              @Positive @PathVariable Long itemId) {
         log.debug("Received GET request to /items/{} endpoint with userId={}", itemId, userId);
         return itemClient.findById(itemId, userId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                              @RequestParam String text,
-                                              @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(defaultValue = "100") Integer size) {
+    public ResponseEntity<byte[]> searchItems(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                             @RequestParam String text,
+                                                             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                             @Positive @RequestParam(defaultValue = "100") Integer size) {
         log.debug("Received GET request to /search endpoint with userId={} and text-param={}", userId, text);
         return itemClient.search(userId, text, from, size);
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Void> deleteItemById(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                               @Positive @PathVariable Long itemId) {
+    public ResponseEntity<byte[]> deleteItemById(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                @Positive @PathVariable Long itemId) {
         log.debug("Received DELETE request to /items/{} endpoint with userId={}", itemId, userId);
-        itemClient.delete(userId, itemId);
-        return ResponseEntity.ok().build();
+        return itemClient.delete(userId, itemId);
     }
 
     // POST /items/{itemId}/comment
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                             @Positive @PathVariable Long itemId,
-                                             @RequestBody CommentDto comment) {
+    public ResponseEntity<byte[]> addComment(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                            @Positive @PathVariable Long itemId,
+                                                            @RequestBody CommentDto comment) {
         log.debug("Received POST request to /items/{}/comment endpoint with userId={} and comment={}", itemId, userId, comment);
         return itemClient.addComment(userId, itemId, comment);
     }
 
+    // GET /items/{itemId}/availability?from={from}&to={to}
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<byte[]> getAvailability(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                 @Positive @PathVariable Long itemId,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.debug("Received GET request to /items/{}/availability endpoint with userId={}, from={}, to={}", itemId, userId, from, to);
+        if (!to.isAfter(from)) {
+            throw new ValidationException("End of the period must be after its start");
+        }
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
+    // GET /items/{itemId}/comments?size={size}
+    // GET /items/{itemId}/comments?after={created,id}&size={size}
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<byte[]> getComments(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                             @Positive @PathVariable Long itemId,
+                                                             @RequestParam(required = false) String after,
+                                                             @Positive @RequestParam(defaultValue = "100") Integer size) {
+        log.debug("Received GET request to /items/{}/comments endpoint with userId={}, after={}, size={}", itemId, userId, after, size);
+        return itemClient.getComments(userId, itemId, after, size);
+    }
+
     private boolean isValidItem(ItemDto itemDto) {
         if (itemDto == null) {
             return false;
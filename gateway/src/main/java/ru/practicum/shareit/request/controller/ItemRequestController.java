@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.client.ItemRequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -15,6 +16,7 @@ import javax.validation.constraints.PositiveOrZero;
 @RestController
 @RequestMapping(path = "/requests")
 @RequiredArgsConstructor
+@Validated
 public class ItemRequestController {
 
 
@@ -23,8 +25,8 @@ public class ItemRequestController {
 
     // POST /requests
     @PostMapping
-    public ResponseEntity<Object> createItemRequest(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                                    @RequestBody ItemRequestDto itemRequestDto) {
+    public ResponseEntity<byte[]> createItemRequest(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                   @RequestBody ItemRequestDto itemRequestDto) {
         log.debug("Received POST-request at /requests endpoint with userId={}, itemRequestDto={}", userId, itemRequestDto);
         if (!isValidItemRequest(itemRequestDto)) {
             throw new ValidationException("Invalid item request: " + itemRequestDto);
@@ -34,24 +36,26 @@ public class ItemRequestController {
 
     // GET /requests
     @GetMapping
-    public ResponseEntity<Object> getUserItemRequests(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId) {
+    public ResponseEntity<byte[]> getUserItemRequests(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId) {
         log.debug("Received GET-request at /requests endpoint with userId={}", userId);
         return itemRequestClient.getUserItemRequests(userId);
     }
 
     // GET /requests/all?from={from}&size={size}
+    // GET /requests/all?after={created,id}&size={size}
     @GetMapping("/all")
-    public ResponseEntity<Object> getOtherUsersItemRequests(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                                            @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                            @Positive @RequestParam(defaultValue = "100") Integer size) {
-        log.debug("Received GET-request at /requests/all endpoint with from={}, size={}", from, size);
-        return itemRequestClient.getOtherUsersItemRequests(userId, from, size);
+    public ResponseEntity<byte[]> getOtherUsersItemRequests(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                           @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                                           @Positive @RequestParam(defaultValue = "100") Integer size,
+                                                                           @RequestParam(required = false) String after) {
+        log.debug("Received GET-request at /requests/all endpoint with from={}, size={}, after={}", from, size, after);
+        return itemRequestClient.getOtherUsersItemRequests(userId, from, size, after);
     }
 
     // GET /requests/{requestId}
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getItemRequestById(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                                     @Positive @PathVariable Long requestId) {
+    public ResponseEntity<byte[]> getItemRequestById(@Positive @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                    @Positive @PathVariable Long requestId) {
         log.debug("Received GET-request at /requests/ endpoint with requestId={}", requestId);
         return itemRequestClient.getItemRequestById(userId, requestId);
     }
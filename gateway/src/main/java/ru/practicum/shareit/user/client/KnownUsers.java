@@ -0,0 +1,68 @@
+package ru.practicum.shareit.user.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// user ids the server is known to accept or reject, so requests from unknown users can be answered by the gateway;
+// missing users are kept for a short time only, a new user may get an id that was unknown before
+@Component
+public class KnownUsers implements MeterBinder {
+
+    private final Cache<Long, Boolean> existing;
+    private final Cache<Long, Boolean> missing;
+
+    public KnownUsers(@Value("${shareit.user-cache.max-size:10000}") long maxSize,
+                      @Value("${shareit.user-cache.ttl:5m}") Duration ttl,
+                      @Value("${shareit.user-cache.missing-ttl:30s}") Duration missingTtl) {
+        this.existing = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(missingTtl)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isExisting(long userId) {
+        return existing.getIfPresent(userId) != null;
+    }
+
+    public boolean isMissing(long userId) {
+        return missing.getIfPresent(userId) != null;
+    }
+
+    public void markExisting(long userId) {
+        missing.invalidate(userId);
+        existing.put(userId, Boolean.TRUE);
+    }
+
+    public void markMissing(long userId) {
+        existing.invalidate(userId);
+        missing.put(userId, Boolean.TRUE);
+    }
+
+    public void forget(long userId) {
+        existing.invalidate(userId);
+        missing.invalidate(userId);
+    }
+
+    public void forgetMissing() {
+        missing.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, existing, "knownUsers");
+        CaffeineCacheMetrics.monitor(registry, missing, "missingUsers");
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.user.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.util.exception.NotFoundException;
+
+import java.io.IOException;
+import java.net.URI;
+
+// rejects requests on behalf of users the server is known not to have and learns user ids from server responses:
+// any 2xx answer to a request with X-Sharer-User-Id means the user exists, a 404 is checked with HEAD /users/{id}
+@Slf4j
+public class KnownUsersInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final KnownUsers knownUsers;
+    private final String serverUrl;
+
+    public KnownUsersInterceptor(KnownUsers knownUsers, String serverUrl) {
+        this.knownUsers = knownUsers;
+        this.serverUrl = serverUrl;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Long userId = userId(request);
+        if (userId == null) {
+            return execution.execute(request, body);
+        }
+
+        if (knownUsers.isMissing(userId)) {
+            log.debug("Rejecting {} {} for unknown user {}", request.getMethod(), request.getURI(), userId);
+            throw new NotFoundException("User with id=" + userId + " not found");
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+
+        int status = response.getRawStatusCode();
+        if (HttpStatus.Series.resolve(status) == HttpStatus.Series.SUCCESSFUL) {
+            knownUsers.markExisting(userId);
+        } else if (status == HttpStatus.NOT_FOUND.value() && !knownUsers.isExisting(userId)) {
+            // remembered either way, so the next 404 of the same user does not cost another HEAD request
+            Boolean exists = userExists(userId, execution);
+            if (Boolean.TRUE.equals(exists)) {
+                knownUsers.markExisting(userId);
+            } else if (Boolean.FALSE.equals(exists)) {
+                knownUsers.markMissing(userId);
+            }
+        }
+        return response;
+    }
+
+    // the 404 may be about any other entity, so ask the server about the user itself;
+    // null when the server gave no clear answer, nothing is cached then
+    @Nullable
+    private Boolean userExists(long userId, ClientHttpRequestExecution execution) {
+        HttpRequest headRequest = new HeadRequest(URI.create(serverUrl + "/users/" + userId));
+        try (ClientHttpResponse response = execution.execute(headRequest, new byte[0])) {
+            int status = response.getRawStatusCode();
+            if (status == HttpStatus.NOT_FOUND.value()) {
+                return false;
+            }
+            return HttpStatus.Series.resolve(status) == HttpStatus.Series.SUCCESSFUL ? true : null;
+        } catch (IOException e) {
+            log.warn("Unable to check whether user {} exists: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Long userId(HttpRequest request) {
+        String userId = request.getHeaders().getFirst(USER_ID_HEADER);
+        if (userId == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(userId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static class HeadRequest implements HttpRequest {
+
+        private final URI uri;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        HeadRequest(URI uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return HttpMethod.HEAD.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
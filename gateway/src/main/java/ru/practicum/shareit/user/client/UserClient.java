@@ -2,44 +2,80 @@ package ru.practicum.shareit.user.client;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    private final KnownUsers knownUsers;
+
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpComponentsClientHttpRequestFactory shareItServerRequestFactory, KnownUsers knownUsers) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> shareItServerRequestFactory)
                         .build()
         );
+        this.knownUsers = knownUsers;
+    }
 
+    public ResponseEntity<byte[]> findById(long userId) {
+        ResponseEntity<byte[]> response = get("/" + userId);
+        if (response.getStatusCode().is2xxSuccessful()) {
+            knownUsers.markExisting(userId);
+        } else if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
+            knownUsers.markMissing(userId);
+        }
+        return response;
     }
 
-    public ResponseEntity<Object> findById(long userId) {
-        return get("/" + userId);
+    public ResponseEntity<byte[]> findAll(@Nullable Long after, Integer size) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "size", size
+        ));
+        // the first page is asked for without a cursor
+        if (after == null) {
+            return get("?size={size}", null, parameters);
+        }
+        parameters.put("after", after);
+        return get("?after={after}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> findAll() {
-        return get("");
+    public ResponseEntity<StreamingResponseBody> export() {
+        return getNdjson("/export", null, null);
     }
 
-    public ResponseEntity<Object> add(UserDto userDto) {
-        return post("", userDto);
+    public ResponseEntity<byte[]> add(UserDto userDto) {
+        ResponseEntity<byte[]> response = post("", userDto);
+        // the new user may have an id that is cached as missing
+        if (response.getStatusCode().is2xxSuccessful()) {
+            knownUsers.forgetMissing();
+        }
+        return response;
     }
 
-    public ResponseEntity<Object> update(Long userId, UserDto userDto) {
-        return patch("/" + userId, userDto);
+    public ResponseEntity<byte[]> update(Long userId, UserDto userDto) {
+        ResponseEntity<byte[]> response = patch("/" + userId, userDto);
+        knownUsers.forget(userId);
+        return response;
     }
 
-    public void delete(long userId) {
-        delete("/" + userId);
+    public ResponseEntity<byte[]> delete(long userId) {
+        ResponseEntity<byte[]> response = delete("/" + userId);
+        knownUsers.forget(userId);
+        return response;
     }
 }
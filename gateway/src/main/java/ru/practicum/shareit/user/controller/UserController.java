@@ -3,7 +3,9 @@ package ru.practicum.shareit.user.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.client.UserClient;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.util.exception.BadRequestException;
@@ -16,12 +18,13 @@ import javax.validation.constraints.Positive;
 @RestController
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
+@Validated
 public class UserController {
 
     private final UserClient userClient;
 
     @PostMapping()
-    public ResponseEntity<Object> addUser(@RequestBody @Valid UserDto userDto) {
+    public ResponseEntity<byte[]> addUser(@RequestBody @Valid UserDto userDto) {
         log.debug("Received POST request to /users endpoint with User-object {}", userDto);
         if (!isValidUser(userDto)) {
             throw new BadRequestException("Invalid user: " + userDto);
@@ -30,29 +33,35 @@ public class UserController {
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@Positive @PathVariable Long userId,
-                                             @RequestBody UserDto userDto) {
+    public ResponseEntity<byte[]> updateUser(@Positive @PathVariable Long userId,
+                                                            @RequestBody UserDto userDto) {
         log.debug("Received PATCH request to /users/{} endpoint with User-object {}", userId, userDto);
         return userClient.update(userId, userDto);
     }
 
     @GetMapping()
-    public ResponseEntity<Object> findAllUsers() {
-        log.debug("Received GET request to /users endpoint");
-        return userClient.findAll();
+    public ResponseEntity<byte[]> findAllUsers(@Positive @RequestParam(required = false) Long after,
+                                                              @Positive @RequestParam(defaultValue = "100") Integer size) {
+        log.debug("Received GET request to /users endpoint with after={}, size={}", after, size);
+        return userClient.findAll(after, size);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.debug("Received GET request to /users/export endpoint");
+        return userClient.export();
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> findUserById(@Positive @PathVariable Long userId) {
+    public ResponseEntity<byte[]> findUserById(@Positive @PathVariable Long userId) {
         log.debug("Received GET request to /users/{} endpoint", userId);
         return userClient.findById(userId);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Void> deleteUserById(@Positive @PathVariable Long userId) {
+    public ResponseEntity<byte[]> deleteUserById(@Positive @PathVariable Long userId) {
         log.debug("Received DELETE request to /users/{} endpoint", userId);
-        userClient.delete(userId);
-        return ResponseEntity.ok().build();
+        return userClient.delete(userId);
     }
 
     private boolean isValidUser(UserDto userDto) {
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.util.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
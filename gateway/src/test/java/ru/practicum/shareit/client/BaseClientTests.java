@@ -0,0 +1,157 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BaseClientTests {
+
+    // formatting Jackson would not produce, so the body is known to be passed through untouched
+    private static final String BOOKINGS = "[ {\"id\" : 1}, {\"id\" : 2} ]";
+    private static final String NOT_FOUND = "{ \"error\" : \"User not found\" }";
+    private static final String EXPORT = "{\"id\":2}\n{\"id\":1}\n";
+
+    private static final HttpServer server = startServer();
+    private static final AtomicInteger serverRequests = new AtomicInteger();
+    private static final AtomicReference<String> serverAccept = new AtomicReference<>();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ThreadPoolTaskExecutor shareItStreamingExecutor;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        serverRequests.set(0);
+    }
+
+    @Test
+    void testResponseIsPassedThrough() throws Exception {
+        // ordinary responses are copied before the controller returns, no async thread is involved
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "ALL"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("X-Next-Cursor", "2023-04-30T20:52:17,7"))
+                .andExpect(header().doesNotExist("Keep-Alive"))
+                .andExpect(content().string(BOOKINGS));
+    }
+
+    @Test
+    void testErrorResponseIsPassedThrough() throws Exception {
+        mockMvc.perform(get("/users/99"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(NOT_FOUND));
+    }
+
+    @Test
+    void testExportIsStreamedThrough() throws Exception {
+        long streamedBefore = shareItStreamingExecutor.getThreadPoolExecutor().getTaskCount();
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist("Transfer-Encoding"))
+                .andExpect(content().string(EXPORT));
+        assertEquals("application/x-ndjson, application/json", serverAccept.get());
+        assertEquals(streamedBefore + 1, shareItStreamingExecutor.getThreadPoolExecutor().getTaskCount());
+    }
+
+    @Test
+    void testInvalidRequestIsRejectedByGateway() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "UNSUPPORTED"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, serverRequests.get());
+    }
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/bookings/owner/export", exchange -> {
+                serverRequests.incrementAndGet();
+                serverAccept.set(exchange.getRequestHeaders().getFirst("Accept"));
+                // chunked, written line by line as the server would while walking its cursor
+                exchange.getResponseHeaders().add("Content-Type", MediaType.APPLICATION_NDJSON_VALUE);
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    for (String line : EXPORT.split("(?<=\n)")) {
+                        outputStream.write(line.getBytes(StandardCharsets.UTF_8));
+                        outputStream.flush();
+                    }
+                }
+            });
+            server.createContext("/bookings", exchange -> {
+                serverRequests.incrementAndGet();
+                exchange.getResponseHeaders().add("X-Next-Cursor", "2023-04-30T20:52:17,7");
+                exchange.getResponseHeaders().add("Keep-Alive", "timeout=5");
+                respond(exchange, 200, BOOKINGS);
+            });
+            server.createContext("/users", exchange -> {
+                serverRequests.incrementAndGet();
+                respond(exchange, 404, NOT_FOUND);
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import ru.practicum.shareit.util.exception.ServiceUnavailableException;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InFlightLimitInterceptorTests {
+
+    private final HttpRequest request = mock(HttpRequest.class);
+    private final ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+
+    @Test
+    void testSlotIsHeldUntilResponseIsClosed() throws IOException {
+        when(execution.execute(any(), any())).thenAnswer(invocation -> mock(ClientHttpResponse.class));
+        InFlightLimitInterceptor interceptor = new InFlightLimitInterceptor(1, Duration.ZERO);
+
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0], execution);
+
+        assertThrows(ServiceUnavailableException.class, () -> interceptor.intercept(request, new byte[0], execution));
+
+        response.close();
+        response.close();
+        assertEquals(1, interceptor.availableSlots());
+
+        interceptor.intercept(request, new byte[0], execution).close();
+        assertEquals(1, interceptor.availableSlots());
+    }
+
+    @Test
+    void testSlotIsReleasedWhenRequestFails() throws IOException {
+        when(execution.execute(any(), any())).thenThrow(new IOException("Connection refused"));
+        InFlightLimitInterceptor interceptor = new InFlightLimitInterceptor(1, Duration.ZERO);
+
+        assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], execution));
+
+        assertEquals(1, interceptor.availableSlots());
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.client.AbstractClientHttpRequestFactoryWrapper;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.item.client.ItemClient;
+import ru.practicum.shareit.request.client.ItemRequestClient;
+import ru.practicum.shareit.user.client.UserClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "shareit-server.max-connections=7",
+        "shareit-server.max-connections-per-route=3"
+})
+class ShareItServerClientConfigTests {
+
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @Autowired
+    private HttpComponentsClientHttpRequestFactory requestFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookingClient bookingClient;
+
+    @Autowired
+    private ItemClient itemClient;
+
+    @Autowired
+    private ItemRequestClient itemRequestClient;
+
+    @Autowired
+    private UserClient userClient;
+
+    @Test
+    void poolIsConfiguredFromProperties() {
+        assertThat(connectionManager.getMaxTotal()).isEqualTo(7);
+        assertThat(connectionManager.getDefaultMaxPerRoute()).isEqualTo(3);
+    }
+
+    @Test
+    void allClientsShareOnePool() {
+        for (BaseClient client : List.of(bookingClient, itemClient, itemRequestClient, userClient)) {
+            assertThat(unwrap(client.rest.getRequestFactory())).isSameAs(requestFactory);
+        }
+    }
+
+    @Test
+    void poolMetricsArePublished() {
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "shareit-server")
+                .gauge()
+                .value()).isEqualTo(7);
+    }
+
+    // RestTemplate wraps the factory to apply interceptors such as the http.client.requests metrics
+    private static ClientHttpRequestFactory unwrap(ClientHttpRequestFactory factory) {
+        while (factory instanceof AbstractClientHttpRequestFactoryWrapper) {
+            factory = (ClientHttpRequestFactory) ReflectionTestUtils.getField(factory, "requestFactory");
+        }
+        return factory;
+    }
+}
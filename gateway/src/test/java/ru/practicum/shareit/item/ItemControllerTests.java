@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.client.ItemClient;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ItemClient itemClient;
+
+    @Test
+    void testGetCommentsIsForwarded() throws Exception {
+        when(itemClient.getComments(1L, 2L, null, 10)).thenReturn(ResponseEntity.ok(new byte[0]));
+
+        mockMvc.perform(get("/items/2/comments")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(itemClient).getComments(1L, 2L, null, 10);
+    }
+
+    @Test
+    void testGetCommentsWithZeroSizeIsRejected() throws Exception {
+        mockMvc.perform(get("/items/2/comments")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void testSearchItemsWithNegativeFromIsRejected() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("text", "drill")
+                        .param("from", "-1"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void testFindItemByNonPositiveIdIsRejected() throws Exception {
+        mockMvc.perform(get("/items/0")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemClient);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.request.client.ItemRequestClient;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemRequestControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ItemRequestClient itemRequestClient;
+
+    @Test
+    void testGetOtherUsersItemRequestsIsForwarded() throws Exception {
+        when(itemRequestClient.getOtherUsersItemRequests(1L, 0, 10, null)).thenReturn(ResponseEntity.ok(new byte[0]));
+
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(itemRequestClient).getOtherUsersItemRequests(1L, 0, 10, null);
+    }
+
+    @Test
+    void testGetOtherUsersItemRequestsWithZeroSizeIsRejected() throws Exception {
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verifyNoInteractions(itemRequestClient);
+    }
+
+    @Test
+    void testGetItemRequestsWithNonPositiveUserIdIsRejected() throws Exception {
+        mockMvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", 0))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemRequestClient);
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import ru.practicum.shareit.user.client.KnownUsers;
+import ru.practicum.shareit.user.client.KnownUsersInterceptor;
+import ru.practicum.shareit.util.exception.NotFoundException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class KnownUsersInterceptorTests {
+
+    private final ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+
+    private KnownUsers knownUsers;
+    private KnownUsersInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        knownUsers = new KnownUsers(100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        interceptor = new KnownUsersInterceptor(knownUsers, "http://localhost:9090");
+    }
+
+    @Test
+    void testSuccessfulResponseMarksUserAsExisting() throws IOException {
+        ClientHttpResponse ok = response(200);
+        when(execution.execute(any(), any())).thenReturn(ok);
+
+        interceptor.intercept(request(1L), new byte[0], execution);
+
+        assertTrue(knownUsers.isExisting(1L));
+    }
+
+    @Test
+    void testUnknownUserIsRejectedWithoutServerCall() throws IOException {
+        ClientHttpResponse notFound = response(404);
+        ClientHttpResponse userNotFound = response(404);
+        when(execution.execute(argThat(request -> request != null && request.getMethod() == HttpMethod.GET), any()))
+                .thenReturn(notFound);
+        when(execution.execute(argThat(request -> request != null && request.getMethod() == HttpMethod.HEAD), any()))
+                .thenReturn(userNotFound);
+
+        interceptor.intercept(request(99L), new byte[0], execution);
+
+        assertTrue(knownUsers.isMissing(99L));
+        assertThrows(NotFoundException.class, () -> interceptor.intercept(request(99L), new byte[0], execution));
+        verify(execution, times(2)).execute(any(), any());
+    }
+
+    @Test
+    void testNotFoundForOtherEntityDoesNotMarkUserAsMissing() throws IOException {
+        ClientHttpResponse notFound = response(404);
+        ClientHttpResponse userFound = response(200);
+        when(execution.execute(argThat(request -> request != null && request.getMethod() == HttpMethod.GET), any()))
+                .thenReturn(notFound);
+        when(execution.execute(argThat(request -> request != null && request.getMethod() == HttpMethod.HEAD), any()))
+                .thenReturn(userFound);
+
+        interceptor.intercept(request(1L), new byte[0], execution);
+        interceptor.intercept(request(1L), new byte[0], execution);
+
+        assertFalse(knownUsers.isMissing(1L));
+        assertTrue(knownUsers.isExisting(1L));
+        // the user confirmed by the first HEAD is not checked again on the second 404
+        verify(execution, times(1)).execute(argThat(request -> request != null && request.getMethod() == HttpMethod.HEAD), any());
+    }
+
+    @Test
+    void testFailedUserCheckIsNotCached() throws IOException {
+        ClientHttpResponse notFound = response(404);
+        when(execution.execute(argThat(request -> request != null && request.getMethod() == HttpMethod.GET), any()))
+                .thenReturn(notFound);
+        when(execution.execute(argThat(request -> request != null && request.getMethod() == HttpMethod.HEAD), any()))
+                .thenThrow(new IOException("Connection reset"));
+
+        interceptor.intercept(request(1L), new byte[0], execution);
+
+        assertFalse(knownUsers.isMissing(1L));
+        assertFalse(knownUsers.isExisting(1L));
+    }
+
+    @Test
+    void testForgetMissingAcceptsUserAgain() throws IOException {
+        knownUsers.markMissing(5L);
+        knownUsers.forgetMissing();
+        ClientHttpResponse ok = response(200);
+        when(execution.execute(any(), any())).thenReturn(ok);
+
+        interceptor.intercept(request(5L), new byte[0], execution);
+
+        assertTrue(knownUsers.isExisting(5L));
+    }
+
+    private static HttpRequest request(long userId) {
+        HttpRequest request = mock(HttpRequest.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        when(request.getHeaders()).thenReturn(headers);
+        when(request.getMethod()).thenReturn(HttpMethod.GET);
+        when(request.getURI()).thenReturn(URI.create("http://localhost:9090/items"));
+        return request;
+    }
+
+    private static ClientHttpResponse response(int status) throws IOException {
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        when(response.getRawStatusCode()).thenReturn(status);
+        return response;
+    }
+}
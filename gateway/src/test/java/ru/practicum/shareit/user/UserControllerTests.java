@@ -0,0 +1,56 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.client.UserClient;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserClient userClient;
+
+    @Test
+    void testFindAllUsersIsForwarded() throws Exception {
+        when(userClient.findAll(5L, 10)).thenReturn(ResponseEntity.ok(new byte[0]));
+
+        mockMvc.perform(get("/users")
+                        .param("after", "5")
+                        .param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(userClient).findAll(5L, 10);
+    }
+
+    @Test
+    void testFindAllUsersWithZeroSizeIsRejected() throws Exception {
+        mockMvc.perform(get("/users")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verifyNoInteractions(userClient);
+    }
+
+    @Test
+    void testFindAllUsersWithNegativeCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/users")
+                        .param("after", "-1"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userClient);
+    }
+}
@@ -1,11 +1,16 @@
 package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.IncomingBookingDto;
 import ru.practicum.shareit.booking.dto.OutgoingBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.util.KeysetCursor;
+import ru.practicum.shareit.util.NextCursor;
 
 import java.util.List;
 
@@ -25,6 +30,13 @@ public class BookingController {
         return ResponseEntity.ok().body(bookingService.createBooking(userId, incomingBookingDto));
     }
 
+    // POST /bookings/batch
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingBatchResultDto>> createBookings(@RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                      @RequestBody List<IncomingBookingDto> incomingBookingDtos) {
+        return ResponseEntity.ok().body(bookingService.createBookings(userId, incomingBookingDtos));
+    }
+
     // PATCH /bookings/{bookingId}?approved={approved}
     @PatchMapping("/{bookingId}")
     public ResponseEntity<OutgoingBookingDto> updateBookingApproval(@RequestHeader(value = "X-Sharer-User-Id") Long userId,
@@ -43,23 +55,57 @@ public class BookingController {
     }
 
     // GET /bookings?state={state}&from={from}&size={size}
+    // GET /bookings?state={state}&after={startTime,id}&size={size}
     @GetMapping
     public ResponseEntity<List<OutgoingBookingDto>> getBookingsByState(@RequestHeader(value = "X-Sharer-User-Id") Long userId,
                                                                        @RequestParam(defaultValue = "ALL") String state,
                                                                        @RequestParam(defaultValue = "0") Integer from,
-                                                                       @RequestParam(defaultValue = "100") Integer size) {
+                                                                       @RequestParam(defaultValue = "100") Integer size,
+                                                                       @RequestParam(required = false) String after) {
+        if (after != null) {
+            return NextCursor.ok(bookingService.getBookingsByStateAfter(userId, state, KeysetCursor.parse(after), size),
+                    size, BookingController::cursorOf);
+        }
         List<OutgoingBookingDto> outgoingBookingDtos = bookingService.getBookingsByState(userId, state, from, size);
         return ResponseEntity.ok().body(outgoingBookingDtos);
     }
 
     // GET /bookings/owner?state={state}&from={from}&size={size}
+    // GET /bookings/owner?state={state}&after={startTime,id}&size={size}
     @GetMapping("/owner")
     public ResponseEntity<List<OutgoingBookingDto>> getBookingsByOwnerAndState(@RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
                                                                                @RequestParam(defaultValue = "ALL") String state,
                                                                                @RequestParam(defaultValue = "0") Integer from,
-                                                                               @RequestParam(defaultValue = "100") Integer size) {
+                                                                               @RequestParam(defaultValue = "100") Integer size,
+                                                                               @RequestParam(required = false) String after) {
+        if (after != null) {
+            return NextCursor.ok(bookingService.getBookingsByOwnerAndStateAfter(ownerId, state, KeysetCursor.parse(after), size),
+                    size, BookingController::cursorOf);
+        }
         List<OutgoingBookingDto> outgoingBookingDtos = bookingService.getBookingsByOwnerAndState(ownerId, state, from, size);
         return ResponseEntity.ok().body(outgoingBookingDtos);
     }
-}
 
+    // GET /bookings/export?state={state}
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByState(@RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                       @RequestParam(defaultValue = "ALL") String state) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookingService.exportBookingsByState(userId, state));
+    }
+
+    // GET /bookings/owner/export?state={state}
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByOwnerAndState(@RequestHeader(value = "X-Sharer-User-Id") Long ownerId,
+                                                                               @RequestParam(defaultValue = "ALL") String state) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookingService.exportBookingsByOwnerAndState(ownerId, state));
+    }
+
+    // bookings are paged by start time
+    private static KeysetCursor cursorOf(OutgoingBookingDto booking) {
+        return new KeysetCursor(booking.getStart(), booking.getId());
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// outcome of one entry of POST /bookings/batch: the HTTP status the single-booking endpoint would have
+// answered with, and either the created booking or the error
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBatchResultDto {
+    private Integer status;
+    private OutgoingBookingDto booking;
+    private String error;
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.util.CacheConfig;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// approved bookings per item, kept in the itemCalendars cache so only recently asked items are held in memory;
+// an item is loaded from the database on its first lookup and kept up to date by approvals afterwards
+@Component
+@RequiredArgsConstructor
+public class BookingCalendar {
+
+    private final BookingRepository bookingRepository;
+    private final CacheManager cacheManager;
+
+    public List<AvailabilityIntervalDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemCalendar calendar = (ItemCalendar) calendars().get(itemId, key -> load(itemId));
+        return calendar.availability(from, to);
+    }
+
+    // applied once the approval is committed, so a rolled back one never shows up; a calendar that is being
+    // loaded meanwhile is waited for, and adding a booking it already picked up is a no-op
+    public void onApproved(Booking booking) {
+        long itemId = booking.getItem().getId();
+        LocalDateTime start = booking.getStartTime();
+        LocalDateTime end = booking.getEndTime();
+
+        Runnable update = () -> calendars().asMap().computeIfPresent(itemId, (key, calendar) -> {
+            ((ItemCalendar) calendar).add(start, end);
+            return calendar;
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private ItemCalendar load(long itemId) {
+        ItemCalendar calendar = new ItemCalendar();
+        bookingRepository.findAllByItemIdAndStatus(itemId, BookingStatus.APPROVED)
+                .forEach(booking -> calendar.add(booking.getStartTime(), booking.getEndTime()));
+        return calendar;
+    }
+
+    // the Caffeine cache itself, past the transaction-aware decorator: updates are deferred to commit above
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> calendars() {
+        return (Cache<Object, Object>) cacheManager.getCache(CacheConfig.ITEM_CALENDARS).getNativeCache();
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDtoMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// writes matching bookings as NDJSON, one OutgoingBookingDto per line, straight from a forward-only cursor;
+// runs after the controller has returned, so it opens a read-only transaction of its own for the cursor
+@Component
+@RequiredArgsConstructor
+public class BookingExport {
+
+    // rows fetched per round trip, also how often the persistence context is cleared
+    private static final int FETCH_SIZE = 500;
+
+    private static final int NEW_LINE = '\n';
+
+    private final BookingRepository bookingRepository;
+    private final BookingDtoMapper bookingDtoMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public void write(Specification<Booking> specification, OutputStream outputStream) throws IOException {
+        // rows are hydrated while the cursor is walked, long after the query itself has run, so the cache mode
+        // is set on the session of this transaction: an export does not push every booker into the second-level cache
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        try (Stream<Booking> bookings = bookingRepository.stream(specification, FETCH_SIZE)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                outputStream.write(objectMapper.writeValueAsBytes(bookingDtoMapper.toDto(iterator.next())));
+                outputStream.write(NEW_LINE);
+            }
+        }
+        outputStream.flush();
+    }
+}
@@ -1,6 +1,10 @@
 package ru.practicum.shareit.booking.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.IncomingBookingDto;
 import ru.practicum.shareit.booking.dto.OutgoingBookingDto;
+import ru.practicum.shareit.util.KeysetCursor;
 
 import java.util.List;
 
@@ -9,6 +13,8 @@ public interface BookingService {
 
     OutgoingBookingDto createBooking(Long userId, IncomingBookingDto incomingBookingDto);
 
+    List<BookingBatchResultDto> createBookings(Long userId, List<IncomingBookingDto> incomingBookingDtos);
+
     OutgoingBookingDto updateBookingApproval(Long bookingId, Long userId, boolean approved);
 
     OutgoingBookingDto getBookingById(Long userId, Long bookingId);
@@ -16,4 +22,13 @@ public interface BookingService {
     List<OutgoingBookingDto> getBookingsByState(Long userId, String state, Integer from, Integer size);
 
     List<OutgoingBookingDto> getBookingsByOwnerAndState(Long ownerId, String state, Integer from, Integer size);
+
+    List<OutgoingBookingDto> getBookingsByStateAfter(Long userId, String state, KeysetCursor after, Integer size);
+
+    List<OutgoingBookingDto> getBookingsByOwnerAndStateAfter(Long ownerId, String state, KeysetCursor after, Integer size);
+
+    // the user and state are checked right away, the bookings are read once the body is written
+    StreamingResponseBody exportBookingsByState(Long userId, String state);
+
+    StreamingResponseBody exportBookingsByOwnerAndState(Long ownerId, String state);
 }
@@ -1,28 +1,39 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.IncomingBookingDto;
 import ru.practicum.shareit.booking.dto.OutgoingBookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.storage.BookingRepository;
-import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.booking.storage.BookingSpecifications;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.storage.UserRepository;
 
+import ru.practicum.shareit.util.KeysetCursor;
+import ru.practicum.shareit.util.exception.ConflictException;
 import ru.practicum.shareit.util.exception.NotFoundException;
 import ru.practicum.shareit.util.exception.ValidationException;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,28 +41,36 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
+    // SQLSTATE of an exclusion constraint violation
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BookingRepository bookingRepository;
     private final BookingDtoMapper bookingDtoMapper;
     private final UserService userService;
     private final UserRepository userRepository;
-    private final ItemService itemService;
     private final ItemRepository itemRepository;
+    private final BookingCalendar bookingCalendar;
+    private final BookingExport bookingExport;
 
     @Transactional
     @Override
     public OutgoingBookingDto createBooking(Long userId, IncomingBookingDto incomingBookingDto) {
 
-        // throw 404 if item or user not found
-        ItemWithBookingsDto itemDto = itemService.findById(incomingBookingDto.getItemId(), userId);
+        // throw 404 if user not found
+        User booker = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
+
+        // throw 404 if item not found, the owner is only needed by id and is not loaded
+        Item item = itemRepository.findById(incomingBookingDto.getItemId())
+                .orElseThrow(() -> new NotFoundException("Item not found"));
 
         // check availability of item
-        if (!itemDto.getAvailable()) {
+        if (!item.getIsAvailable()) {
             throw new ValidationException("Item is not available");
         }
 
-        Item item = itemRepository.findById(incomingBookingDto.getItemId()).orElse(null);
-        User booker = userRepository.findById(userId).orElse(null);
-
         // check if booker is not owner of item
         if (item.getOwner().getId().equals(userId)) {
             throw new NotFoundException("Booker is owner of item");
@@ -62,9 +81,55 @@ public class BookingServiceImpl implements BookingService {
         booking.setStatus(BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
         return bookingDtoMapper.toDto(savedBooking);
+    }
 
+    @Transactional
+    @Override
+    public List<BookingBatchResultDto> createBookings(Long userId, List<IncomingBookingDto> incomingBookingDtos) {
 
+        if (incomingBookingDtos.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Batch must not contain more than " + MAX_BATCH_SIZE + " bookings");
+        }
 
+        // throw 404 if user not found, the whole batch belongs to one booker
+        User booker = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
+
+        // all items of the batch in one select
+        Map<Long, Item> items = itemRepository.findAllById(incomingBookingDtos.stream()
+                        .map(IncomingBookingDto::getItemId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        // entries are checked like in createBooking, failed ones do not stop the others
+        Booking[] bookings = new Booking[incomingBookingDtos.size()];
+        BookingBatchResultDto[] results = new BookingBatchResultDto[incomingBookingDtos.size()];
+        for (int i = 0; i < bookings.length; i++) {
+            IncomingBookingDto incomingBookingDto = incomingBookingDtos.get(i);
+            Item item = items.get(incomingBookingDto.getItemId());
+            if (item == null) {
+                results[i] = failed(HttpStatus.NOT_FOUND, "Item not found");
+            } else if (!item.getIsAvailable()) {
+                results[i] = failed(HttpStatus.BAD_REQUEST, "Item is not available");
+            } else if (item.getOwner().getId().equals(userId)) {
+                results[i] = failed(HttpStatus.NOT_FOUND, "Booker is owner of item");
+            } else {
+                bookings[i] = bookingDtoMapper.toBooking(incomingBookingDto, item, booker);
+                bookings[i].setStatus(BookingStatus.WAITING);
+            }
+        }
+
+        // ids come from the sequence, so the inserts are sent as JDBC batches on flush
+        bookingRepository.saveAll(Arrays.stream(bookings).filter(Objects::nonNull).collect(Collectors.toList()));
+        bookingRepository.flush();
+
+        for (int i = 0; i < bookings.length; i++) {
+            if (bookings[i] != null) {
+                results[i] = new BookingBatchResultDto(HttpStatus.OK.value(), bookingDtoMapper.toDto(bookings[i]), null);
+            }
+        }
+        return Arrays.asList(results);
     }
 
     @Transactional
@@ -93,11 +158,40 @@ public class BookingServiceImpl implements BookingService {
             } else {
                 booking.setStatus(BookingStatus.REJECTED);
             }
-            Booking savedBooking = bookingRepository.save(booking);
+            Booking savedBooking = saveApproval(booking);
+            if (approved) {
+                bookingCalendar.onApproved(savedBooking);
+            }
             return bookingDtoMapper.toDto(savedBooking);
         } else throw new NotFoundException("User is not owner of item");
     }
 
+    private static BookingBatchResultDto failed(HttpStatus status, String error) {
+        return new BookingBatchResultDto(status.value(), null, error);
+    }
+
+    // overlapping approved bookings of an item are rejected by the database (bookings_no_overlapping_approved),
+    // so concurrent approvals need no locking here; the flush makes the violation surface inside this method
+    private Booking saveApproval(Booking booking) {
+        try {
+            return bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new ConflictException("Item is already booked for these dates");
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isExclusionViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public OutgoingBookingDto getBookingById(Long userId, Long bookingId) {
 
@@ -124,54 +218,7 @@ public class BookingServiceImpl implements BookingService {
         // throw 404 if user not found
         userService.findById(userId);
 
-        // convert from to page
-        int page = from > 0 ? from / size : 0;
-
-        switch (state) {
-            case "CURRENT":
-                return bookingRepository.findAllByBookerIdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(userId,
-                        LocalDateTime.now(), LocalDateTime.now(), PageRequest.of(page, size)).stream()
-                        .map(bookingDtoMapper::toDto)
-                        .collect(Collectors.toList());
-
-            case "PAST":
-                return bookingRepository.findAllByBookerIdAndEndTimeBeforeOrderByStartTimeDesc(userId,
-                        LocalDateTime.now(), PageRequest.of(page, size))
-                        .stream()
-                        .map(bookingDtoMapper::toDto)
-                        .collect(Collectors.toList());
-
-            case "FUTURE":
-                return bookingRepository.findAllByBookerIdAndStartTimeAfterOrderByStartTimeDesc(userId,
-                        LocalDateTime.now(), PageRequest.of(page, size))
-                        .stream()
-                        .map(bookingDtoMapper::toDto)
-                        .collect(Collectors.toList());
-
-            case "WAITING":
-                return bookingRepository.findAllByBookerIdAndStatusOrderByStartTimeDesc(userId,
-                                BookingStatus.WAITING,
-                                PageRequest.of(page, size))
-                        .stream()
-                        .map(bookingDtoMapper::toDto)
-                        .collect(Collectors.toList());
-
-            case "REJECTED":
-                return bookingRepository.findAllByBookerIdAndStatusOrderByStartTimeDesc(userId,
-                                BookingStatus.REJECTED, PageRequest.of(page, size))
-                        .stream()
-                        .map(bookingDtoMapper::toDto)
-                        .collect(Collectors.toList());
-
-            case "ALL":
-                return bookingRepository.findAllByBookerIdOrderByStartTimeDesc(userId, PageRequest.of(page, size))
-                        .stream()
-                        .map(bookingDtoMapper::toDto)
-                        .collect(Collectors.toList());
-
-            default:
-                throw new ValidationException("Unknown state: " + state);
-        }
+        return this.findBookings(BookingSpecifications.bookedBy(userId), state, null, from, size);
     }
 
     @Override
@@ -180,54 +227,73 @@ public class BookingServiceImpl implements BookingService {
         // throw 404 if user not found
         userService.findById(ownerId);
 
-        // convert from to page
-        int page = from > 0 ? from / size : 0;
-
-        switch (state) {
-            case "CURRENT":
-                return bookingRepository.findAllByItemOwnerIdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
-                                ownerId,
-                                LocalDateTime.now(), LocalDateTime.now(), PageRequest.of(page, size)).stream()
-                                .map(bookingDtoMapper::toDto)
-                                .collect(Collectors.toList());
-
-            case "PAST":
-                return bookingRepository.findAllByItemOwnerIdAndEndTimeBeforeOrderByStartTimeDesc(ownerId,
-                                LocalDateTime.now(), PageRequest.of(page, size))
-                        .stream()
-                        .map(bookingDtoMapper::toDto)
-                        .collect(Collectors.toList());
-
-            case "FUTURE":
-                return bookingRepository.findAllByItemOwnerIdAndStartTimeAfterOrderByStartTimeDesc(ownerId,
-                                LocalDateTime.now(), PageRequest.of(page, size))
-                        .stream()
-                        .map(bookingDtoMapper::toDto)
-                        .collect(Collectors.toList());
-
-            case "WAITING":
-                return bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartTimeDesc(ownerId,
-                        BookingStatus.WAITING, PageRequest.of(page, size))
-                        .stream()
-                        .map(bookingDtoMapper::toDto)
-                        .collect(Collectors.toList());
-
-            case "REJECTED":
-                return bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartTimeDesc(ownerId,
-                        BookingStatus.REJECTED, PageRequest.of(page, size))
-                        .stream()
-                        .map(bookingDtoMapper::toDto)
-                        .collect(Collectors.toList());
-
-            case "ALL":
-                return bookingRepository.findAllByItemOwnerIdOrderByStartTimeDesc(ownerId, PageRequest.of(page, size))
-                        .stream()
-                        .map(bookingDtoMapper::toDto)
-                        .collect(Collectors.toList());
-
-            default:
-                throw new ValidationException("Unknown state: " + state);
+        return this.findBookings(BookingSpecifications.ownedBy(ownerId), state, null, from, size);
+    }
+
+    @Override
+    public List<OutgoingBookingDto> getBookingsByStateAfter(Long userId, String state, KeysetCursor after, Integer size) {
+
+        // throw 404 if user not found
+        userService.findById(userId);
+
+        return this.findBookings(BookingSpecifications.bookedBy(userId), state, after, 0, size);
+    }
+
+    @Override
+    public List<OutgoingBookingDto> getBookingsByOwnerAndStateAfter(Long ownerId, String state, KeysetCursor after,
+                                                                    Integer size) {
+
+        // throw 404 if user not found
+        userService.findById(ownerId);
+
+        return this.findBookings(BookingSpecifications.ownedBy(ownerId), state, after, 0, size);
+    }
+
+    @Override
+    public StreamingResponseBody exportBookingsByState(Long userId, String state) {
+
+        // throw 404 if user not found
+        userService.findById(userId);
+
+        return this.exportBookings(BookingSpecifications.bookedBy(userId), state);
+    }
+
+    @Override
+    public StreamingResponseBody exportBookingsByOwnerAndState(Long ownerId, String state) {
+
+        // throw 404 if user not found
+        userService.findById(ownerId);
+
+        return this.exportBookings(BookingSpecifications.ownedBy(ownerId), state);
+    }
+
+    private StreamingResponseBody exportBookings(Specification<Booking> role, String state) {
+
+        BookingState bookingState = BookingState.from(state)
+                .orElseThrow(() -> new ValidationException("Unknown state: " + state));
+
+        Specification<Booking> specification = role.and(
+                BookingSpecifications.inState(bookingState, LocalDateTime.now()));
+
+        return outputStream -> bookingExport.write(specification, outputStream);
+    }
+
+    // one query shape for every role and state: offset paging when no cursor is given,
+    // otherwise WHERE (start_time, id) < (after) ORDER BY start_time DESC, id DESC LIMIT size
+    private List<OutgoingBookingDto> findBookings(Specification<Booking> role, String state,
+                                                  KeysetCursor after, Integer from, Integer size) {
+
+        BookingState bookingState = BookingState.from(state)
+                .orElseThrow(() -> new ValidationException("Unknown state: " + state));
+
+        Specification<Booking> specification = role.and(
+                BookingSpecifications.inState(bookingState, LocalDateTime.now()));
+        if (after != null) {
+            specification = specification.and(BookingSpecifications.after(after));
         }
 
+        return bookingRepository.findAll(specification, from, size).stream()
+                .map(bookingDtoMapper::toDto)
+                .collect(Collectors.toList());
     }
 }
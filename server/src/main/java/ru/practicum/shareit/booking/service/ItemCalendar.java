@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// approved [start, end) ranges of one item keyed by start; the ranges of an item never intersect
+// (bookings_no_overlapping_approved), so a range covering a point is either the last one starting
+// at or before it or one starting inside the queried window, and a lookup is O(log n + k)
+final class ItemCalendar {
+
+    private final NavigableMap<LocalDateTime, LocalDateTime> busy = new TreeMap<>();
+
+    synchronized void add(LocalDateTime start, LocalDateTime end) {
+        busy.put(start, end);
+    }
+
+    // free and busy intervals covering [from, to) without gaps, busy ones clipped to the window
+    synchronized List<AvailabilityIntervalDto> availability(LocalDateTime from, LocalDateTime to) {
+        List<AvailabilityIntervalDto> intervals = new ArrayList<>();
+        LocalDateTime cursor = from;
+
+        Map.Entry<LocalDateTime, LocalDateTime> previous = busy.floorEntry(from);
+        if (previous != null && previous.getValue().isAfter(from)) {
+            cursor = min(previous.getValue(), to);
+            intervals.add(interval(from, cursor, false));
+        }
+
+        for (Map.Entry<LocalDateTime, LocalDateTime> range : busy.subMap(from, false, to, false).entrySet()) {
+            if (range.getKey().isAfter(cursor)) {
+                intervals.add(interval(cursor, range.getKey(), true));
+            }
+            LocalDateTime end = min(range.getValue(), to);
+            if (end.isAfter(cursor)) {
+                intervals.add(interval(max(range.getKey(), cursor), end, false));
+                cursor = end;
+            }
+        }
+
+        if (cursor.isBefore(to)) {
+            intervals.add(interval(cursor, to, true));
+        }
+        return intervals;
+    }
+
+    private static AvailabilityIntervalDto interval(LocalDateTime start, LocalDateTime end, boolean free) {
+        return new AvailabilityIntervalDto(start, end, free);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
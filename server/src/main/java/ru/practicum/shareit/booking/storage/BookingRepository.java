@@ -1,66 +1,40 @@
 package ru.practicum.shareit.booking.storage;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerIdOrderByStartTimeDesc(Long bookerId, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(Long bookerId,
-                                                                                         LocalDateTime startTime,
-                                                                                         LocalDateTime endTime,
-                                                                                         Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndEndTimeBeforeOrderByStartTimeDesc(Long bookerId,
-                                                                        LocalDateTime endTime,
-                                                                        Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartTimeAfterOrderByStartTimeDesc(Long bookerId,
-                                                                         LocalDateTime startTime,
-                                                                         Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStatusOrderByStartTimeDesc(Long bookerId,
-                                                                 BookingStatus status,
-                                                                 Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(Long ownerId,
-                                                                                            LocalDateTime startTime,
-                                                                                            LocalDateTime endTime,
-                                                                                            Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndEndTimeBeforeOrderByStartTimeDesc(Long ownerId,
-                                                                           LocalDateTime endTime,
-                                                                           Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStartTimeAfterOrderByStartTimeDesc(Long ownerId,
-                                                                            LocalDateTime startTime,
-                                                                            Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartTimeDesc(Long ownerId,
-                                                                    BookingStatus status,
-                                                                    Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdOrderByStartTimeDesc(Long ownerId,
-                                                           Pageable pageable);
-
-    Optional<Booking> findFirstByItemIdAndStartTimeBeforeAndStatusOrderByStartTimeDesc(Long itemId,
-                                                                                       LocalDateTime endTime,
-                                                                                       BookingStatus status);
-
-    Optional<Booking> findFirstByItemIdAndStartTimeAfterAndStatusOrderByStartTimeAsc(Long itemId,
-                                                                                     LocalDateTime startTime,
-                                                                                     BookingStatus status);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    // the booking is always mapped together with its item, owner and booker
+    @Override
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findById(Long id);
+
+    // last (started before now) and next (starts after now) approved booking of every given item,
+    // ranked per item with a window function so the whole page is served by one statement
+    @Query(value = "SELECT id, start_time, end_time, item_id, booker_id, status FROM ("
+            + " SELECT b.*, ROW_NUMBER() OVER (PARTITION BY b.item_id, b.start_time < :now"
+            + " ORDER BY CASE WHEN b.start_time < :now THEN b.start_time END DESC, b.start_time ASC) AS rn"
+            + " FROM bookings b"
+            + " WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED' AND b.start_time <> :now"
+            + ") ranked WHERE rn = 1", nativeQuery = true)
+    List<Booking> findLastAndNextApprovedByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                                   @Param("now") LocalDateTime now);
 
     Boolean existsByItemIdAndBookerIdAndStatusAndEndTimeBefore(Long itemId,
                                                                Long userId,
                                                                BookingStatus status,
                                                                LocalDateTime endTime);
+
+    List<Booking> findAllByItemIdAndStatus(Long itemId, BookingStatus status);
 }
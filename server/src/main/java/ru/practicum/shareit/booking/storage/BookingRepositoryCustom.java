@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BookingRepositoryCustom {
+
+    // bookings matching the specification in (startTime DESC, id DESC) order with item, owner and booker
+    // fetched in the same statement; no count query is issued
+    List<Booking> findAll(Specification<Booking> specification, int offset, int limit);
+
+    // the same query without a limit, read through a forward-only cursor fetchSize rows at a time; has to be
+    // consumed and closed inside a transaction, the persistence context is cleared every fetchSize rows
+    Stream<Booking> stream(Specification<Booking> specification, int fetchSize);
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findAll(Specification<Booking> specification, int offset, int limit) {
+        return entityManager.createQuery(query(specification))
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Booking> stream(Specification<Booking> specification, int fetchSize) {
+        AtomicLong rows = new AtomicLong();
+        return entityManager.createQuery(query(specification))
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                // no dirty-checking snapshots for the rows that go by
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                // the row at hand is fully fetched, so it can still be mapped after the clear
+                .peek(booking -> {
+                    if (rows.incrementAndGet() % fetchSize == 0) {
+                        entityManager.clear();
+                    }
+                });
+    }
+
+    private CriteriaQuery<Booking> query(Specification<Booking> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = builder.createQuery(Booking.class);
+        Root<Booking> root = query.from(Booking.class);
+
+        // fetches are registered before the specification so it can filter on the joined owner
+        Fetch<Booking, Item> item = root.fetch("item", JoinType.INNER);
+        item.fetch("owner", JoinType.INNER);
+        root.fetch("booker", JoinType.INNER);
+
+        query.select(root)
+                .where(specification.toPredicate(root, query, builder))
+                .orderBy(builder.desc(root.get("startTime")), builder.desc(root.get("id")));
+        return query;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.util.KeysetCursor;
+
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import java.time.LocalDateTime;
+
+public final class BookingSpecifications {
+
+    private BookingSpecifications() {
+    }
+
+    public static Specification<Booking> bookedBy(Long bookerId) {
+        return (root, query, builder) -> builder.equal(join(root, "booker").get("id"), bookerId);
+    }
+
+    public static Specification<Booking> ownedBy(Long ownerId) {
+        return (root, query, builder) -> builder.equal(join(join(root, "item"), "owner").get("id"), ownerId);
+    }
+
+    public static Specification<Booking> inState(BookingState state, LocalDateTime now) {
+        switch (state) {
+            case CURRENT:
+                return (root, query, builder) -> builder.and(
+                        builder.lessThan(root.get("startTime"), now),
+                        builder.greaterThan(root.get("endTime"), now));
+
+            case PAST:
+                return (root, query, builder) -> builder.lessThan(root.get("endTime"), now);
+
+            case FUTURE:
+                return (root, query, builder) -> builder.greaterThan(root.get("startTime"), now);
+
+            case WAITING:
+                return (root, query, builder) -> builder.equal(root.get("status"), BookingStatus.WAITING);
+
+            case REJECTED:
+                return (root, query, builder) -> builder.equal(root.get("status"), BookingStatus.REJECTED);
+
+            case ALL:
+            default:
+                return (root, query, builder) -> builder.conjunction();
+        }
+    }
+
+    // (startTime, id) < (cursor.startTime, cursor.id), spelled out since JPQL has no row value comparison;
+    // the redundant startTime <= cursor.startTime is what lets the database range-scan the start time indexes
+    // instead of filtering every row before the cursor
+    public static Specification<Booking> after(KeysetCursor cursor) {
+        return (root, query, builder) -> builder.and(
+                builder.lessThanOrEqualTo(root.get("startTime"), cursor.getTime()),
+                builder.or(
+                        builder.lessThan(root.get("startTime"), cursor.getTime()),
+                        builder.and(
+                                builder.equal(root.get("startTime"), cursor.getTime()),
+                                builder.lessThan(root.get("id"), cursor.getId()))));
+    }
+
+    // reuses the association already fetched by the repository instead of adding a second join to the query
+    @SuppressWarnings("unchecked")
+    private static <X> From<?, X> join(From<?, ?> from, String attribute) {
+        for (Fetch<?, ?> fetch : from.getFetches()) {
+            if (fetch.getAttribute().getName().equals(attribute) && fetch instanceof Join) {
+                return (From<?, X>) fetch;
+            }
+        }
+        return (From<?, X>) from.join(attribute);
+    }
+}
@@ -2,14 +2,19 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.util.KeysetCursor;
+import ru.practicum.shareit.util.NextCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -77,4 +82,26 @@ public class ItemController {
         return ResponseEntity.ok().body(itemService.addComment(userId, itemId, comment));
     }
 
+    // GET /items/{itemId}/availability?from={from}&to={to}
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<List<AvailabilityIntervalDto>> getAvailability(@RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                                         @PathVariable Long itemId,
+                                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.debug("Received GET request to /items/{}/availability endpoint with userId={}, from={}, to={}", itemId, userId, from, to);
+        return ResponseEntity.ok().body(itemService.getAvailability(userId, itemId, from, to));
+    }
+
+    // GET /items/{itemId}/comments?size={size}
+    // GET /items/{itemId}/comments?after={created,id}&size={size}
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@RequestHeader(value = "X-Sharer-User-Id") Long userId,
+                                                        @PathVariable Long itemId,
+                                                        @RequestParam(required = false) String after,
+                                                        @RequestParam(defaultValue = "100") Integer size) {
+        log.debug("Received GET request to /items/{}/comments endpoint with userId={}, after={}, size={}", itemId, userId, after, size);
+        return NextCursor.ok(itemService.getComments(userId, itemId, KeysetCursor.parse(after), size),
+                size, comment -> KeysetCursor.of(comment.getCreated(), comment.getId()));
+    }
+
 }
\ No newline at end of file
@@ -28,5 +28,6 @@ public interface ItemDtoMapper {
     ItemWithBookingsDto toItemWithBookingsDto(Item item,
                                               ItemBookingDto lastBooking,
                                               ItemBookingDto nextBooking,
-                                              List<CommentDto> comments);
+                                              List<CommentDto> comments,
+                                              Long commentCount);
 }
@@ -18,5 +18,6 @@ public class ItemWithBookingsDto {
     private ItemBookingDto lastBooking;
     private ItemBookingDto nextBooking;
     private List<CommentDto> comments;
+    private Long commentCount;
 }
 
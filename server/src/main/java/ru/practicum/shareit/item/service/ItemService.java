@@ -1,10 +1,13 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.util.KeysetCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -21,4 +24,8 @@ public interface ItemService {
     CommentDto addComment(long userId, long itemId, Comment comment);
 
     void delete(long userId, long itemId);
+
+    List<AvailabilityIntervalDto> getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<CommentDto> getComments(long userId, long itemId, KeysetCursor after, Integer size);
 }
@@ -4,8 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
-import ru.practicum.shareit.booking.dto.ItemBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingCalendar;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
@@ -17,6 +18,7 @@ import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoMapper;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.KeysetCursor;
 import ru.practicum.shareit.util.exception.BadRequestException;
 import ru.practicum.shareit.util.exception.NotAllowedException;
 import ru.practicum.shareit.util.exception.NotFoundException;
@@ -42,6 +44,10 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
     private final CommentDtoMapper commentDtoMapper;
     private final ItemRequestRepository itemRequestRepository;
+    private final BookingCalendar bookingCalendar;
+
+    // item detail embeds only the latest comments, older ones are paged through getComments
+    private static final int LATEST_COMMENTS = 10;
 
     @Override
     public ItemWithBookingsDto findById(long itemId, long userId) {
@@ -52,13 +58,16 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId).orElse(null);
 
         if (item != null) {
+            List<CommentDto> comments = commentRepository.findLatestByItemId(itemId, PageRequest.of(0, LATEST_COMMENTS)).stream()
+                    .map(commentDtoMapper::toDto)
+                    .collect(Collectors.toList());
+            // a short page already holds every comment, so only count when there may be more
+            long commentCount = comments.size() < LATEST_COMMENTS ? comments.size() : commentRepository.countByItemId(itemId);
+
             if (item.getOwner().getId().equals(userId)) {
-                return this.addBookingsAndCommentsToItem(item);
+                return this.addBookingsToItems(List.of(item), Map.of(itemId, comments), Map.of(itemId, commentCount)).get(0);
             } else {
-                List<CommentDto> comments = commentRepository.findAllByItemIdOrderByCreatedDesc(item.getId()).stream()
-                        .map(commentDtoMapper::toDto)
-                        .collect(Collectors.toList());
-                return itemDtoMapper.toItemWithBookingsDto(item, null, null, comments);
+                return itemDtoMapper.toItemWithBookingsDto(item, null, null, comments, commentCount);
             }
         } else throw new NotFoundException("Item not found");
     }
@@ -76,9 +85,8 @@ public class ItemServiceImpl implements ItemService {
         // convert from to page
         int page = from > 0 ? from / size : 0;
 
-        return itemRepository.findAllByOwnerIdOrderById(userId, PageRequest.of(page, size)).stream()
-                .map(this::addBookingsAndCommentsToItem)
-                .collect(Collectors.toList());
+        return this.addBookingsAndCommentsToItems(
+                itemRepository.findAllByOwnerIdOrderById(userId, PageRequest.of(page, size)));
     }
 
     @Transactional
@@ -93,6 +101,11 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item newItem = itemRepository.save(itemDtoMapper.toItem(itemDto, userDtoMapper.toUser(owner), itemRequest));
+
+        // the request side of the association is cached, changing it makes Hibernate drop the stale entry
+        if (itemRequest != null) {
+            itemRequest.getItems().add(newItem);
+        }
         itemDto.setId(newItem.getId());
         return itemDto;
     }
@@ -122,10 +135,11 @@ public class ItemServiceImpl implements ItemService {
 
         if (request.isBlank()) return new ArrayList<>();
 
-        return itemRepository.findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndIsAvailable(request,
-                        request, true, PageRequest.of(page, size)).stream()
+        // wildcards typed by the user are matched literally
+        String text = request.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+
+        return itemRepository.search(text, PageRequest.of(page, size)).stream()
                 .map(itemDtoMapper::toItemDto)
-                .sorted(Comparator.comparing(ItemDto::getId))
                 .collect(Collectors.toList());
     }
 
@@ -163,28 +177,99 @@ public class ItemServiceImpl implements ItemService {
         if (itemToDelete == null) throw new NotFoundException("Item not found");
         if (itemToDelete.getOwner().getId() != userId) throw new NotAllowedException("Item delete is not allowed to that user");
 
+        if (itemToDelete.getItemRequest() != null) {
+            itemToDelete.getItemRequest().getItems().removeIf(item -> item.getId().equals(itemId));
+        }
         itemRepository.delete(itemToDelete);
     }
 
-    private ItemWithBookingsDto addBookingsAndCommentsToItem(Item item) {
+    @Override
+    public List<AvailabilityIntervalDto> getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        userService.findById(userId); // throws 404 if user not found
+        if (itemRepository.findById(itemId).isEmpty()) throw new NotFoundException("Item not found");
+        if (!to.isAfter(from)) throw new ValidationException("End of the period must be after its start");
+
+        return bookingCalendar.getAvailability(itemId, from, to);
+    }
 
-        List<CommentDto> comments = commentRepository.findAllByItemIdOrderByCreatedDesc(item.getId()).stream()
+    @Override
+    public List<CommentDto> getComments(long userId, long itemId, KeysetCursor after, Integer size) {
+        userService.findById(userId); // throws 404 if user not found
+        if (size < 1) throw new ValidationException("Invalid size");
+        if (itemRepository.findById(itemId).isEmpty()) throw new NotFoundException("Item not found");
+
+        PageRequest page = PageRequest.of(0, size);
+        List<Comment> comments = after == null
+                ? commentRepository.findLatestByItemId(itemId, page)
+                : commentRepository.findLatestByItemIdAfter(itemId, after.getTime(), after.getId(), page);
+        return comments.stream()
                 .map(commentDtoMapper::toDto)
                 .collect(Collectors.toList());
+    }
+
+    private List<ItemWithBookingsDto> addBookingsAndCommentsToItems(List<Item> items) {
+
+        if (items.isEmpty()) return new ArrayList<>();
+
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
 
-        ItemBookingDto lastBooking = bookingDtoMapper.toItemBookingDto(
-                    bookingRepository.findFirstByItemIdAndStartTimeBeforeAndStatusOrderByStartTimeDesc(item.getId(),
-                            LocalDateTime.now(),
-                            BookingStatus.APPROVED)
-                            .orElse(null));
+        // the latest comments of every item on the page, the same bound as the detail view has:
+        // one query ranks their ids per item, one more loads them with their authors
+        List<Long> commentIds = commentRepository.findLatestIdsByItemIdIn(itemIds, LATEST_COMMENTS).stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList());
+        Map<Long, List<CommentDto>> comments = commentIds.isEmpty() ? new HashMap<>()
+                : commentRepository.findAllWithAuthorByIdIn(commentIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentDtoMapper::toDto, Collectors.toList())));
+
+        // a short list already holds every comment of its item, only full ones are counted
+        Map<Long, Long> commentCounts = new HashMap<>();
+        List<Long> fullItemIds = new ArrayList<>();
+        comments.forEach((itemId, itemComments) -> {
+            if (itemComments.size() < LATEST_COMMENTS) {
+                commentCounts.put(itemId, (long) itemComments.size());
+            } else {
+                fullItemIds.add(itemId);
+            }
+        });
+        if (!fullItemIds.isEmpty()) {
+            commentRepository.countByItemIdIn(fullItemIds)
+                    .forEach(count -> commentCounts.put(count.getItemId(), count.getCommentCount()));
+        }
 
-        ItemBookingDto nextBooking = bookingDtoMapper.toItemBookingDto(
-                    bookingRepository.findFirstByItemIdAndStartTimeAfterAndStatusOrderByStartTimeAsc(item.getId(),
-                            LocalDateTime.now(),
-                            BookingStatus.APPROVED)
-                            .orElse(null));
+        return addBookingsToItems(items, comments, commentCounts);
+    }
 
-        return itemDtoMapper.toItemWithBookingsDto(item, lastBooking, nextBooking, comments);
+    private List<ItemWithBookingsDto> addBookingsToItems(List<Item> items,
+                                                         Map<Long, List<CommentDto>> comments,
+                                                         Map<Long, Long> commentCounts) {
+
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+
+        // one query for the last and next approved bookings of all items
+        Map<Long, Booking> lastBookings = new HashMap<>();
+        Map<Long, Booking> nextBookings = new HashMap<>();
+        for (Booking booking : bookingRepository.findLastAndNextApprovedByItemIds(itemIds, now)) {
+            if (booking.getStartTime().isBefore(now)) {
+                lastBookings.put(booking.getItem().getId(), booking);
+            } else {
+                nextBookings.put(booking.getItem().getId(), booking);
+            }
+        }
+
+        return items.stream()
+                .map(item -> itemDtoMapper.toItemWithBookingsDto(item,
+                        bookingDtoMapper.toItemBookingDto(lastBookings.get(item.getId())),
+                        bookingDtoMapper.toItemBookingDto(nextBookings.get(item.getId())),
+                        comments.getOrDefault(item.getId(), new ArrayList<>()),
+                        commentCounts.getOrDefault(item.getId(), 0L)))
+                .collect(Collectors.toList());
     }
 
 }
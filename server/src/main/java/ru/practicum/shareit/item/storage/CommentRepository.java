@@ -1,10 +1,46 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemIdOrderByCreatedDesc(Long itemId);
+    long countByItemId(Long itemId);
+
+    @Query("select c.item.id as itemId, count(c) as commentCount from Comment c"
+            + " where c.item.id in :itemIds group by c.item.id")
+    List<ItemCommentCount> countByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    // ids of at most :limit newest comments of every given item, ranked per item with a window function
+    // over idx_comments_item_created; ids come back as whatever integer type the driver maps BIGINT to
+    @Query(value = "SELECT id FROM ("
+            + " SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.created DESC, c.id DESC) AS rn"
+            + " FROM comments c"
+            + " WHERE c.item_id IN (:itemIds)"
+            + ") ranked WHERE rn <= :limit", nativeQuery = true)
+    List<Number> findLatestIdsByItemIdIn(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query("select c from Comment c join fetch c.author where c.id in :ids order by c.created desc, c.id desc")
+    List<Comment> findAllWithAuthorByIdIn(@Param("ids") Collection<Long> ids);
+
+    // newest first, both pages below are served by idx_comments_item_created
+    @Query("select c from Comment c join fetch c.author where c.item.id = :itemId order by c.created desc, c.id desc")
+    List<Comment> findLatestByItemId(@Param("itemId") Long itemId, Pageable pageable);
+
+    // (created, id) < (:created, :id), spelled out since JPQL has no row value comparison;
+    // created <= :created bounds the range scanned on idx_comments_item_created, the rest only filters within it
+    @Query("select c from Comment c join fetch c.author where c.item.id = :itemId"
+            + " and c.created <= :created"
+            + " and (c.created < :created or (c.created = :created and c.id < :id))"
+            + " order by c.created desc, c.id desc")
+    List<Comment> findLatestByItemIdAfter(@Param("itemId") Long itemId,
+                                          @Param("created") LocalDateTime created,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
 }
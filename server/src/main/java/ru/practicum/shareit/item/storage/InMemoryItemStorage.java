@@ -5,10 +5,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -16,14 +23,27 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class InMemoryItemStorage implements ItemStorage {
 
-    private final HashMap<Long, Item> items = new HashMap<>();
-    private Long id = 0L;
+    // must be a power of two
+    private static final int SHARDS = 16;
+
+    private final Map<Long, Item> items = new ConcurrentHashMap<>();
+    private final AtomicLong id = new AtomicLong();
+
+    // secondary index: owner id -> ids of the owner's items, and the owner each item was indexed under
+    private final Map<Long, Set<Long>> itemIdsByOwnerId = new ConcurrentHashMap<>();
+    private final Map<Long, Long> ownerIdByItemId = new ConcurrentHashMap<>();
+
+    // the search index is split by item id, one lock per shard: a write holds the write lock of its item's shard,
+    // so the map and both indexes stay in step for that item while writes to other shards go ahead
+    private final Shard[] shards = createShards();
 
     @Override
     public List<Item> findAllByOwnerId(long ownerId) {
         log.debug("findAllByOwnerId method called");
-        return items.values().stream()
-                .filter(item -> item.getOwner().getId().equals(ownerId))
+        return itemIdsByOwnerId.getOrDefault(ownerId, Set.of()).stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(Item::getId))
                 .collect(Collectors.toList());
     }
 
@@ -37,17 +57,36 @@ public class InMemoryItemStorage implements ItemStorage {
     public Set<Item> search(String request) {
         log.debug("search method called with request={}", request);
 
-        List<Item> result = items.values().stream()
-                .filter(item -> item.getDescription().toLowerCase().contains(request.toLowerCase()))
-                .filter(Item::getIsAvailable)
-                .collect(Collectors.toList());
+        long[][] shardItemIds = new long[SHARDS][];
+        int found = 0;
+        for (int i = 0; i < SHARDS; i++) {
+            Shard shard = shards[i];
+            shard.lock.readLock().lock();
+            try {
+                shardItemIds[i] = shard.searchIndex.search(request);
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+            found += shardItemIds[i].length;
+        }
 
-        result.addAll(items.values().stream()
-                .filter(item -> item.getName().toLowerCase().contains(request.toLowerCase()))
-                .filter(Item::getIsAvailable)
-                .collect(Collectors.toList()));
+        // every shard answers in ascending id order, the merged result keeps it
+        long[] itemIds = new long[found];
+        int copied = 0;
+        for (long[] ids : shardItemIds) {
+            System.arraycopy(ids, 0, itemIds, copied, ids.length);
+            copied += ids.length;
+        }
+        Arrays.sort(itemIds);
 
-        return new HashSet<>(result);
+        Set<Item> result = new LinkedHashSet<>();
+        for (long itemId : itemIds) {
+            Item item = items.get(itemId);
+            if (item != null && item.getIsAvailable()) {
+                result.add(item);
+            }
+        }
+        return result;
     }
 
     @Override
@@ -55,24 +94,79 @@ public class InMemoryItemStorage implements ItemStorage {
         log.debug("add method called with {}", item);
         Long itemId = this.generateId();
         item.setId(itemId);
-        items.put(itemId, item);
+        this.put(itemId, item);
         return item;
     }
 
     @Override
     public Item update(long itemId, Item item) {
         log.debug("update method called with itemId={} and {}", itemId, item);
-        items.put(itemId, item);
+        this.put(itemId, item);
         return item;
     }
 
     @Override
     public void delete(long itemId) {
         log.debug("delete method called with itemId={}", itemId);
-        items.remove(itemId);
+        Shard shard = shardFor(itemId);
+        shard.lock.writeLock().lock();
+        try {
+            items.remove(itemId);
+            unindexOwner(itemId);
+            shard.searchIndex.remove(itemId);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    private void put(long itemId, Item item) {
+        Shard shard = shardFor(itemId);
+        shard.lock.writeLock().lock();
+        try {
+            items.put(itemId, item);
+
+            unindexOwner(itemId);
+            if (item.getOwner() != null && item.getOwner().getId() != null) {
+                long ownerId = item.getOwner().getId();
+                ownerIdByItemId.put(itemId, ownerId);
+                itemIdsByOwnerId.computeIfAbsent(ownerId, key -> ConcurrentHashMap.newKeySet()).add(itemId);
+            }
+
+            shard.searchIndex.put(itemId, item.getName(), item.getDescription());
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    private void unindexOwner(long itemId) {
+        Long ownerId = ownerIdByItemId.remove(itemId);
+        if (ownerId != null) {
+            itemIdsByOwnerId.computeIfPresent(ownerId, (key, itemIds) -> {
+                itemIds.remove(itemId);
+                return itemIds.isEmpty() ? null : itemIds;
+            });
+        }
+    }
+
+    private Shard shardFor(long itemId) {
+        return shards[Long.hashCode(itemId) & (SHARDS - 1)];
+    }
+
+    private static Shard[] createShards() {
+        Shard[] shards = new Shard[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+        return shards;
     }
 
     private Long generateId() {
-        return ++id;
+        return id.incrementAndGet();
+    }
+
+    private static final class Shard {
+
+        private final ItemSearchIndex searchIndex = new ItemSearchIndex();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
     }
 }
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.storage;
+
+// number of comments of one item, as counted by CommentRepository.countByItemIdIn
+public interface ItemCommentCount {
+    Long getItemId();
+
+    Long getCommentCount();
+}
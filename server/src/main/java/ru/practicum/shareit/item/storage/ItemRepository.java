@@ -5,15 +5,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
     List<Item> findAllByOwnerIdOrderById(long ownerId, Pageable pageable);
 
-    List<Item> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndIsAvailable(String name,
-                                                                                            String description,
-                                                                                            Boolean isAvailable,
-                                                                                            Pageable pageable);
+    List<Item> findAllByItemRequestIdIn(Collection<Long> requestIds);
 
 }
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.storage;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+
+    // available items whose name or description contains the text, case-insensitive; on PostgreSQL the closest
+    // trigram matches come first, elsewhere (and between equally close items) the order is by id
+    List<Item> search(String text, Pageable pageable);
+}
@@ -0,0 +1,170 @@
+package ru.practicum.shareit.item.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// case-insensitive substring index: every text is split into its 1-, 2- and 3-grams and each gram keeps
+// a sorted list of ids; short queries are a single posting list lookup, longer ones intersect the lists
+// of their trigrams and check the remaining candidates
+final class ItemSearchIndex {
+
+    private static final int MAX_GRAM_LENGTH = 3;
+
+    private final Map<String, LongPostings> postings = new HashMap<>();
+
+    // lower-cased texts as they were indexed, needed to unindex an entry after its source has changed
+    private final Map<Long, String[]> indexedTexts = new HashMap<>();
+
+    void put(long id, String... texts) {
+        remove(id);
+
+        String[] normalized = new String[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            normalized[i] = normalize(texts[i]);
+        }
+        indexedTexts.put(id, normalized);
+
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, key -> new LongPostings()).add(id);
+        }
+    }
+
+    void remove(long id) {
+        String[] texts = indexedTexts.remove(id);
+        if (texts == null) {
+            return;
+        }
+
+        for (String gram : grams(texts)) {
+            LongPostings ids = postings.get(gram);
+            ids.remove(id);
+            if (ids.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    // ids of entries with at least one text containing the query, in ascending order
+    long[] search(String query) {
+        String normalized = normalize(query);
+
+        if (normalized.isEmpty()) {
+            return indexedTexts.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+
+        if (normalized.length() <= MAX_GRAM_LENGTH) {
+            LongPostings ids = postings.get(normalized);
+            return ids == null ? new long[0] : ids.toArray();
+        }
+
+        List<LongPostings> lists = new ArrayList<>();
+        for (String gram : gramsOfLength(normalized, MAX_GRAM_LENGTH)) {
+            LongPostings ids = postings.get(gram);
+            if (ids == null) {
+                return new long[0];
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(LongPostings::size));
+
+        long[] candidates = lists.get(0).toArray();
+        int found = 0;
+        for (long id : candidates) {
+            if (inAll(lists, id) && contains(indexedTexts.get(id), normalized)) {
+                candidates[found++] = id;
+            }
+        }
+        return Arrays.copyOf(candidates, found);
+    }
+
+    private static boolean inAll(List<LongPostings> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(String[] texts, String query) {
+        for (String text : texts) {
+            if (text.contains(query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase();
+    }
+
+    // grams are taken per text, so a match never spans two texts
+    private static Set<String> grams(String[] texts) {
+        Set<String> grams = new HashSet<>();
+        for (String text : texts) {
+            for (int length = 1; length <= MAX_GRAM_LENGTH; length++) {
+                grams.addAll(gramsOfLength(text, length));
+            }
+        }
+        return grams;
+    }
+
+    private static Set<String> gramsOfLength(String text, int length) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + length <= text.length(); i++) {
+            grams.add(text.substring(i, i + length));
+        }
+        return grams;
+    }
+
+    // sorted set of ids backed by a primitive array
+    private static final class LongPostings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.util.KeysetCursor;
+import ru.practicum.shareit.util.NextCursor;
 
 import java.util.List;
 
@@ -15,7 +17,6 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemRequestController {
 
-
     private final ItemRequestService itemRequestService;
 
 
@@ -35,11 +36,17 @@ public class ItemRequestController {
     }
 
     // GET /requests/all?from={from}&size={size}
+    // GET /requests/all?after={created,id}&size={size}
     @GetMapping("/all")
     public ResponseEntity<List<ItemRequestDto>> getOtherUsersItemRequests(@RequestHeader(value = "X-Sharer-User-Id") Long userId,
                                                                           @RequestParam(defaultValue = "0") Integer from,
-                                                                          @RequestParam(defaultValue = "100") Integer size) {
-        log.debug("Received GET-request at /requests/all endpoint with from={}, size={}", from, size);
+                                                                          @RequestParam(defaultValue = "100") Integer size,
+                                                                          @RequestParam(required = false) String after) {
+        log.debug("Received GET-request at /requests/all endpoint with from={}, size={}, after={}", from, size, after);
+        if (after != null) {
+            return NextCursor.ok(itemRequestService.getOtherUsersItemRequestsAfter(userId, KeysetCursor.parse(after), size),
+                    size, itemRequest -> KeysetCursor.of(itemRequest.getCreated(), itemRequest.getId()));
+        }
         return ResponseEntity.ok().body(itemRequestService.getOtherUsersItemRequests(userId, from, size));
     }
 
@@ -11,6 +11,7 @@ import java.util.List;
 
 @Mapper(componentModel = "spring", uses = ItemDtoMapper.class)
 public interface ItemRequestDtoMapper {
+    @Mapping(target = "items", source = "items")
     ItemRequestDto toItemRequestDto(ItemRequest itemRequest, List<Item> items);
 
     @Mapping(target = "id", source = "itemRequestDto.id")
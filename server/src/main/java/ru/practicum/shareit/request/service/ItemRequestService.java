@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request.service;
 
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.util.KeysetCursor;
 
 import java.util.List;
 
@@ -11,5 +12,7 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getOtherUsersItemRequests(Long userId, Integer from, Integer size);
 
+    List<ItemRequestDto> getOtherUsersItemRequestsAfter(Long userId, KeysetCursor after, Integer size);
+
     ItemRequestDto getItemRequestById(Long userId, Long id);
 }
@@ -2,9 +2,10 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -12,10 +13,14 @@ import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoMapper;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.KeysetCursor;
 import ru.practicum.shareit.util.exception.NotFoundException;
+import ru.practicum.shareit.util.exception.ValidationException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +29,7 @@ import java.util.stream.Collectors;
 public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
     private final ItemRequestDtoMapper itemRequestDtoMapper;
     private final UserService userService;
     private final UserDtoMapper userDtoMapper;
@@ -47,9 +53,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         // throws 404 if user not found
         userService.findById(userId);
 
-        return itemRequestRepository.findAllByAuthorId(userId).stream()
-                .map(i -> itemRequestDtoMapper.toItemRequestDto(i, i.getItems()))
-                .collect(Collectors.toList());
+        return this.addItemsToItemRequests(itemRequestRepository.findAllByAuthorId(userId));
     }
 
     @Override
@@ -57,10 +61,29 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         // throws 404 if user not found
         userService.findById(userId);
 
-        return itemRequestRepository.findAllByAuthorIdNot(userId, PageRequest.of(from, size, Sort.by("created")))
-                .stream()
-                .map(i -> itemRequestDtoMapper.toItemRequestDto(i, i.getItems()))
-                .collect(Collectors.toList());
+        // validate from and size
+        if (from < 0 || size < 1) {
+            throw new ValidationException("Invalid from or size");
+        }
+
+        // from is a row offset, it does not have to be a multiple of size
+        return this.addItemsToItemRequests(itemRequestRepository.findAllByAuthorIdNot(userId, from, size));
+    }
+
+    @Override
+    public List<ItemRequestDto> getOtherUsersItemRequestsAfter(Long userId, KeysetCursor after, Integer size) {
+        // throws 404 if user not found
+        userService.findById(userId);
+
+        if (size < 1) {
+            throw new ValidationException("Invalid size");
+        }
+
+        if (after == null) {
+            return this.addItemsToItemRequests(itemRequestRepository.findAllByAuthorIdNot(userId, 0, size));
+        }
+        return this.addItemsToItemRequests(itemRequestRepository.findAllByAuthorIdNotAfter(userId,
+                after.getTime(), after.getId(), PageRequest.of(0, size)));
     }
 
     @Override
@@ -72,4 +95,21 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .map(i -> itemRequestDtoMapper.toItemRequestDto(i, i.getItems()))
                 .orElseThrow(() -> new NotFoundException("Item request not found"));
     }
+
+    private List<ItemRequestDto> addItemsToItemRequests(List<ItemRequest> itemRequests) {
+
+        if (itemRequests.isEmpty()) return new ArrayList<>();
+
+        List<Long> itemRequestIds = itemRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+
+        // one query for the items of all requests, grouped by request in memory
+        Map<Long, List<Item>> items = itemRepository.findAllByItemRequestIdIn(itemRequestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getItemRequest().getId()));
+
+        return itemRequests.stream()
+                .map(i -> itemRequestDtoMapper.toItemRequestDto(i, items.getOrDefault(i.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
 }
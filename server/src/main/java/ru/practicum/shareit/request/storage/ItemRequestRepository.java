@@ -1,16 +1,29 @@
 package ru.practicum.shareit.request.storage;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import org.springframework.data.domain.Pageable;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>, ItemRequestRepositoryCustom {
 
     List<ItemRequest> findAllByAuthorId(Long authorId);
 
-    List<ItemRequest> findAllByAuthorIdNot(Long authorId, Pageable pageable);
+    // newest first, walks idx_requests_created from the cursor on whatever the depth of the page
+    // (created, id) < (:created, :id) is spelled out since JPQL has no row value comparison,
+    // created <= :created is the part the index range is taken from
+    @Query("select r from ItemRequest r where r.author.id <> :authorId"
+            + " and r.created <= :created"
+            + " and (r.created < :created or (r.created = :created and r.id < :id))"
+            + " order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByAuthorIdNotAfter(@Param("authorId") Long authorId,
+                                                @Param("created") LocalDateTime created,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.request.storage;
+
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+
+public interface ItemRequestRepositoryCustom {
+
+    // requests of everybody but the author, newest first, skipping exactly offset rows
+    List<ItemRequest> findAllByAuthorIdNot(Long authorId, int offset, int limit);
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.request.storage;
+
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+public class ItemRequestRepositoryCustomImpl implements ItemRequestRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ItemRequest> findAllByAuthorIdNot(Long authorId, int offset, int limit) {
+        return entityManager.createQuery("select r from ItemRequest r where r.author.id <> :authorId"
+                        + " order by r.created desc, r.id desc", ItemRequest.class)
+                .setParameter("authorId", authorId)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -2,10 +2,13 @@ package ru.practicum.shareit.user.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.NextCursor;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -31,10 +34,23 @@ public class UserController {
         return ResponseEntity.ok().body(userService.update(userId, userDto));
     }
 
+    // GET /users?size={size}
+    // GET /users?after={id}&size={size}
     @GetMapping()
-    public ResponseEntity<List<UserDto>> findAllUsers() {
-        log.debug("Received GET request to /users endpoint");
-        return ResponseEntity.ok().body(userService.findAll());
+    public ResponseEntity<List<UserDto>> findAllUsers(@RequestParam(required = false) Long after,
+                                                      @RequestParam(defaultValue = "100") Integer size) {
+        log.debug("Received GET request to /users endpoint with after={}, size={}", after, size);
+        // users are paged by id alone, so the cursor is just the last id
+        return NextCursor.ok(userService.findAll(after, size), size, UserDto::getId);
+    }
+
+    // GET /users/export
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.debug("Received GET request to /users/export endpoint");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userService.export());
     }
 
     @GetMapping("/{userId}")
@@ -43,6 +59,15 @@ public class UserController {
         return ResponseEntity.ok().body(userService.findById(userId));
     }
 
+    // HEAD /users/{userId}: 200 if the user exists, 404 otherwise
+    @RequestMapping(path = "/{userId}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> checkUserExists(@PathVariable Long userId) {
+        log.debug("Received HEAD request to /users/{} endpoint", userId);
+        return userService.existsById(userId)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
+
     @DeleteMapping("/{userId}")
     public void deleteUserById(@PathVariable Long userId) {
         log.debug("Received DELETE request to /users/{} endpoint", userId);
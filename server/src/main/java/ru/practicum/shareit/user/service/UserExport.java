@@ -0,0 +1,49 @@
+package ru.practicum.shareit.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.dto.UserDtoMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// writes every user as NDJSON, one UserDto per line, straight from a forward-only cursor;
+// runs after the controller has returned, so it opens a read-only transaction of its own for the cursor
+@Component
+@RequiredArgsConstructor
+public class UserExport {
+
+    private static final int NEW_LINE = '\n';
+
+    private final UserRepository userRepository;
+    private final UserDtoMapper userDtoMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public void write(OutputStream outputStream) throws IOException {
+        // an export does not push every user into the second-level cache
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        try (Stream<User> users = userRepository.streamAll()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                outputStream.write(objectMapper.writeValueAsBytes(userDtoMapper.toUserDto(user)));
+                outputStream.write(NEW_LINE);
+                // users have no associations, detaching the row keeps the persistence context empty
+                entityManager.detach(user);
+            }
+        }
+        outputStream.flush();
+    }
+}
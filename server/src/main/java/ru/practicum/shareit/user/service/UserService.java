@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
@@ -8,7 +9,12 @@ public interface UserService {
 
     UserDto findById(long userId);
 
-    List<UserDto> findAll();
+    boolean existsById(long userId);
+
+    List<UserDto> findAll(Long after, Integer size);
+
+    // users are read once the body is written
+    StreamingResponseBody export();
 
     UserDto add(UserDto userDto);
 
@@ -1,14 +1,21 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.CacheConfig;
 import ru.practicum.shareit.util.exception.BadRequestException;
 import ru.practicum.shareit.util.exception.NotFoundException;
+import ru.practicum.shareit.util.exception.ValidationException;
 
 import java.util.List;
 import java.util.regex.Pattern;
@@ -19,23 +26,45 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    // no single page holds more users than this, whatever size is asked for; larger dumps go through export
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final UserRepository userRepository;
     private final UserDtoMapper userDtoMapper;
+    private final UserExport userExport;
 
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#userId")
     @Override
     public UserDto findById(long userId) {
-        if (this.doesExist(userId)) {
-            return userDtoMapper.toUserDto(userRepository.findById(userId).orElse(null));
-        } else throw new NotFoundException("User with id=" + userId + " not found");
+        return userRepository.findById(userId)
+                .map(userDtoMapper::toUserDto)
+                .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
+    }
+
+    // only known users are cached, so a user added later is never reported missing
+    @Cacheable(cacheNames = CacheConfig.USER_IDS, key = "#userId", unless = "!#result")
+    @Override
+    public boolean existsById(long userId) {
+        return userRepository.existsById(userId);
     }
 
     @Override
-    public List<UserDto> findAll() {
-        return userRepository.findAll().stream()
+    public List<UserDto> findAll(Long after, Integer size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be from 1 to " + MAX_PAGE_SIZE);
+        }
+
+        // no cursor means "from the first user"
+        return userRepository.findAllByIdGreaterThanOrderById(after == null ? 0 : after, PageRequest.of(0, size)).stream()
                 .map(userDtoMapper::toUserDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public StreamingResponseBody export() {
+        return userExport::write;
+    }
+
     @Transactional
     @Override
     public UserDto add(UserDto userDto) {
@@ -44,6 +73,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId")
     @Override
     public UserDto update(Long userId, UserDto userDto) {
         User userToUpdate = userRepository.findById(userId).orElse(null);
@@ -66,17 +96,17 @@ public class UserServiceImpl implements UserService {
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USER_IDS, key = "#userId")
+    })
     @Override
     public void delete(long userId) {
-        if (this.doesExist(userId)) {
+        if (userRepository.existsById(userId)) {
             userRepository.deleteById(userId);
         } else throw new NotFoundException("User with id=" + userId + " not found");
     }
 
-    private boolean doesExist(Long userId) {
-        return userRepository.findById(userId).orElse(null) != null;
-    }
-
     public boolean isValidEmail(String email) {
         String emailRegex = "^[a-zA-Z0-9_+&*-]+(?:\\." +
                 "[a-zA-Z0-9_+&*-]+)*@" +
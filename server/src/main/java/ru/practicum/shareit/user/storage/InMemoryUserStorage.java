@@ -6,14 +6,16 @@ import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class InMemoryUserStorage implements UserStorage {
 
-    private final HashMap<Long, User> users = new HashMap<>();
-    private Long id = 0L;
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final AtomicLong id = new AtomicLong();
 
     @Override
     public List<User> findAll() {
@@ -51,6 +53,6 @@ public class InMemoryUserStorage implements UserStorage {
     }
 
     private Long generateId() {
-        return ++id;
+        return id.incrementAndGet();
     }
 }
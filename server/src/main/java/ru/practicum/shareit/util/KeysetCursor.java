@@ -0,0 +1,49 @@
+package ru.practicum.shareit.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.util.exception.ValidationException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position of the last row of a keyset page over (time DESC, id DESC), passed around as "time,id"
+ * (e.g. "2023-05-01T20:52:00,2"). The next page starts strictly after it. Bookings are paged by their
+ * start time, comments and item requests by the time they were created.
+ */
+@Data
+@AllArgsConstructor
+public class KeysetCursor {
+    private LocalDateTime time;
+    private Long id;
+
+    // returns null for a blank cursor, which means "from the first row"
+    public static KeysetCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        int separator = cursor.lastIndexOf(',');
+        if (separator < 0) {
+            throw new ValidationException("Invalid cursor: " + cursor);
+        }
+
+        try {
+            return new KeysetCursor(LocalDateTime.parse(cursor.substring(0, separator).trim()),
+                    Long.valueOf(cursor.substring(separator + 1).trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new ValidationException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // for DTOs that carry their timestamp as an ISO string
+    public static KeysetCursor of(String time, Long id) {
+        return new KeysetCursor(LocalDateTime.parse(time), id);
+    }
+
+    @Override
+    public String toString() {
+        return time + "," + id;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+// keyset listings answer with the position of their last row in X-Next-Cursor when the page is full,
+// since a full page may be followed by another one; a short page is the last one and has no header
+public final class NextCursor {
+
+    public static final String HEADER = "X-Next-Cursor";
+
+    private NextCursor() {
+    }
+
+    // cursorOf gives the position of a row, its toString is what the client passes back as after
+    public static <T> ResponseEntity<List<T>> ok(List<T> page, int size, Function<? super T, ?> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!page.isEmpty() && page.size() == size) {
+            response.header(HEADER, String.valueOf(cursorOf.apply(page.get(page.size() - 1))));
+        }
+        return response.body(page);
+    }
+}
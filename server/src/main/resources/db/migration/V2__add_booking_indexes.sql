@@ -0,0 +1,11 @@
+-- booker listings: ALL/CURRENT/PAST/FUTURE filter by booker and sort by start time
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_time DESC);
+
+-- booker listings: WAITING/REJECTED filter by booker and status
+CREATE INDEX idx_bookings_booker_status_start ON bookings (booker_id, status, start_time DESC);
+
+-- last/next approved booking of an item, owner listings joined through items
+CREATE INDEX idx_bookings_item_status_start ON bookings (item_id, status, start_time);
+
+-- owner item pages and owner booking listings
+CREATE INDEX idx_items_owner ON items (owner_id, id);
@@ -0,0 +1,2 @@
+-- latest comments of an item and keyset pages over them
+CREATE INDEX idx_comments_item_created ON comments (item_id, created DESC, id DESC);
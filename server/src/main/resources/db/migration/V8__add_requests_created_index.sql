@@ -0,0 +1,2 @@
+-- feed of other users' requests, newest first, paged by (created, id)
+CREATE INDEX idx_requests_created ON requests (created DESC, id DESC);
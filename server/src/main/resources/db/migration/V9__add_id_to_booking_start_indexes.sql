@@ -0,0 +1,7 @@
+-- booking listings order by (start_time DESC, id DESC) and keyset pages continue from both,
+-- with id in the index the tie-break is read from it instead of sorting rows with equal start times
+DROP INDEX idx_bookings_booker_start;
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_time DESC, id DESC);
+
+DROP INDEX idx_bookings_booker_status_start;
+CREATE INDEX idx_bookings_booker_status_start ON bookings (booker_id, status, start_time DESC, id DESC);
@@ -13,11 +13,15 @@ import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlGroup;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.dto.IncomingBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -65,6 +69,35 @@ public class BookingControllerIntegrationTest {
                 .andExpect(jsonPath("$.status").isNotEmpty());
     }
 
+    @Test
+    void testCreateBookings() throws Exception {
+        IncomingBookingDto ownItem = new IncomingBookingDto();
+        ownItem.setItemId(2L);
+        ownItem.setStart(incomingBookingDto.getStart());
+        ownItem.setEnd(incomingBookingDto.getEnd());
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 4L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(List.of(incomingBookingDto, ownItem))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].booking.id").isNotEmpty())
+                .andExpect(jsonPath("$[0].booking.status").value("WAITING"))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[1].error").value("Booker is owner of item"));
+    }
+
+    @Test
+    void testCreateBookingsForUnknownUser() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 99L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(List.of(incomingBookingDto))))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testUpdateBookingApproval() throws Exception {
         Long bookingId = 1L;
@@ -143,6 +176,130 @@ public class BookingControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].end").isNotEmpty());
     }
 
+    @Test
+    void testGetBookingsByStateWithUnalignedOffset() throws Exception {
+        // from is an offset, not a page number, so it does not have to be a multiple of size
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("state", "ALL")
+                        .param("from", "1")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(7L))
+                .andExpect(jsonPath("$[1].id").value(6L));
+    }
+
+    @Test
+    void testGetBookingsByStateWithCursor() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("state", "ALL")
+                        .param("after", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "2023-04-30T20:52:17,7"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(2L))
+                .andExpect(jsonPath("$[1].id").value(7L));
+
+        // bookings 5 and 6 start at the same time and are ordered by id
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("state", "ALL")
+                        .param("after", "2023-04-30T20:52:17,7")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "2023-04-30T20:52:07,5"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(6L))
+                .andExpect(jsonPath("$[1].id").value(5L));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("state", "ALL")
+                        .param("after", "2023-04-30T20:52:07,5")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
+    @Test
+    void testGetBookingsByOwnerAndStateWithCursor() throws Exception {
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 4L)
+                        .param("state", "REJECTED")
+                        .param("after", ""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(5L));
+    }
+
+    @Test
+    void testGetBookingsByStateWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("after", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportBookingsByOwnerAndState() throws Exception {
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 4L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        // one booking per line, newest first, same fields as the paged listing
+        String[] lines = body.split("\n");
+        assertEquals(5, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(2L, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals("Отвертка", objectMapper.readTree(lines[0]).get("item").get("name").asText());
+        assertEquals(5L, objectMapper.readTree(lines[1]).get("booker").get("id").asLong());
+    }
+
+    @Test
+    void testExportBookingsByState() throws Exception {
+        MvcResult result = mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "REJECTED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(1, body.split("\n").length);
+        assertEquals(5L, new ObjectMapper().readTree(body).get("id").asLong());
+    }
+
+    @Test
+    void testExportBookingsWithUnknownStateOrUser() throws Exception {
+        // the gateway accepts JSON next to NDJSON, errors are reported before anything is streamed
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 4L)
+                        .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON)
+                        .param("state", "UNKNOWN"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+        mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 99L)
+                        .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
     private String toJson(Object object) {
         try {
             ObjectMapper objectMapper = new ObjectMapper();
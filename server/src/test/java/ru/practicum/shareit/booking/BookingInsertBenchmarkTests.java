@@ -0,0 +1,111 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlGroup;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// mvn test -Dtest=BookingInsertBenchmarkTests -Dbenchmark=true
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SqlGroup({
+        @Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:test-data.sql"),
+        @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean-data.sql")
+})
+public class BookingInsertBenchmarkTests {
+
+    private static final int BOOKINGS = 100_000;
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // IDENTITY ids (the mapping before pooled sequences) against Booking's pooled sequence in batches of 50
+    @Test
+    void benchmarkInsertBookings() {
+        double identity = insertBookings((startTime, endTime, item, booker) ->
+                new IdentityBooking(null, startTime, endTime, item, booker, BookingStatus.WAITING));
+        jdbcTemplate.update("DELETE FROM bookings WHERE id > 8");
+        double pooled = insertBookings((startTime, endTime, item, booker) ->
+                new Booking(null, startTime, endTime, item, booker, BookingStatus.WAITING));
+
+        log.info("Inserted {} bookings: {} rows/s with IDENTITY ids, {} rows/s with pooled sequence ids",
+                BOOKINGS, Math.round(identity), Math.round(pooled));
+    }
+
+    private double insertBookings(BookingFactory bookingFactory) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        long startedAt = System.nanoTime();
+        entityManager.getTransaction().begin();
+        for (int i = 0; i < BOOKINGS; i++) {
+            entityManager.persist(bookingFactory.create(start.plusMinutes(i), start.plusMinutes(i + 1),
+                    entityManager.getReference(Item.class, 1L + i % 5),
+                    entityManager.getReference(User.class, 1L + i % 7)));
+            if ((i + 1) % CHUNK_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.getTransaction().commit();
+        long elapsed = System.nanoTime() - startedAt;
+        entityManager.close();
+
+        assertEquals(BOOKINGS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE id > 8", Integer.class));
+        return BOOKINGS * 1_000_000_000.0 / elapsed;
+    }
+
+    private interface BookingFactory {
+        Object create(LocalDateTime startTime, LocalDateTime endTime, Item item, User booker);
+    }
+
+    // the bookings table as it was mapped before pooled sequences: Hibernate has to run every insert on its own
+    // to read back the id the column default generated, so nothing is batched; the default now draws from
+    // bookings_seq, which keeps the ids apart from the ones Booking hands out
+    @Entity
+    @Data
+    @Table(name = "bookings")
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class IdentityBooking {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private LocalDateTime startTime;
+
+        private LocalDateTime endTime;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        private Item item;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        private User booker;
+
+        @Enumerated(EnumType.STRING)
+        private BookingStatus status;
+    }
+}
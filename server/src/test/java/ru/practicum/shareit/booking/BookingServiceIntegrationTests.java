@@ -0,0 +1,272 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlGroup;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.IncomingBookingDto;
+import ru.practicum.shareit.booking.dto.OutgoingBookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.util.exception.ConflictException;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@SqlGroup({
+        @Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:test-data.sql"),
+        @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean-data.sql")
+})
+public class BookingServiceIntegrationTests {
+
+    // user check plus the page itself
+    private static final long MAX_STATEMENTS_PER_PAGE = 2;
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetBookingsByState_loadsPageInFixedNumberOfStatements() {
+        List<OutgoingBookingDto> bookings = bookingService.getBookingsByState(1L, "ALL", 0, 100);
+
+        assertEquals(5, bookings.size());
+        bookings.forEach(booking -> {
+            assertNotNull(booking.getItem().getName());
+            assertNotNull(booking.getBooker().getName());
+        });
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS_PER_PAGE,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetBookingsByOwnerAndState_loadsPageInFixedNumberOfStatements() {
+        List<OutgoingBookingDto> bookings = bookingService.getBookingsByOwnerAndState(4L, "ALL", 0, 100);
+
+        assertEquals(5, bookings.size());
+        bookings.forEach(booking -> {
+            assertNotNull(booking.getItem().getName());
+            assertNotNull(booking.getBooker().getName());
+        });
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS_PER_PAGE,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetBookingsByState_returnsBookingsOfEachState() {
+        addCurrentAndFutureBookings();
+
+        assertEquals(List.of(21L, 20L, 2L, 7L, 6L, 5L, 1L), bookingIds(bookingService.getBookingsByState(1L, "ALL", 0, 100)));
+        assertEquals(List.of(20L), bookingIds(bookingService.getBookingsByState(1L, "CURRENT", 0, 100)));
+        assertEquals(List.of(2L, 7L, 6L, 5L, 1L), bookingIds(bookingService.getBookingsByState(1L, "PAST", 0, 100)));
+        assertEquals(List.of(21L), bookingIds(bookingService.getBookingsByState(1L, "FUTURE", 0, 100)));
+        assertEquals(List.of(21L, 1L), bookingIds(bookingService.getBookingsByState(1L, "WAITING", 0, 100)));
+        assertEquals(List.of(5L), bookingIds(bookingService.getBookingsByState(1L, "REJECTED", 0, 100)));
+    }
+
+    @Test
+    void testGetBookingsByOwnerAndState_returnsBookingsOfEachState() {
+        addCurrentAndFutureBookings();
+
+        assertEquals(List.of(21L, 20L, 2L, 4L, 6L, 5L, 1L),
+                bookingIds(bookingService.getBookingsByOwnerAndState(4L, "ALL", 0, 100)));
+        assertEquals(List.of(20L), bookingIds(bookingService.getBookingsByOwnerAndState(4L, "CURRENT", 0, 100)));
+        assertEquals(List.of(2L, 4L, 6L, 5L, 1L), bookingIds(bookingService.getBookingsByOwnerAndState(4L, "PAST", 0, 100)));
+        assertEquals(List.of(21L), bookingIds(bookingService.getBookingsByOwnerAndState(4L, "FUTURE", 0, 100)));
+        assertEquals(List.of(21L, 1L), bookingIds(bookingService.getBookingsByOwnerAndState(4L, "WAITING", 0, 100)));
+        assertEquals(List.of(5L), bookingIds(bookingService.getBookingsByOwnerAndState(4L, "REJECTED", 0, 100)));
+    }
+
+    @Test
+    void testGetBookingById_loadsBookingInOneStatement() {
+        OutgoingBookingDto booking = bookingService.getBookingById(1L, 1L);
+
+        assertEquals(2L, booking.getItem().getId());
+        assertEquals(1L, booking.getBooker().getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testCreateBooking_selectsBookerAndItemOnly() {
+        OutgoingBookingDto booking = bookingService.createBooking(2L, IncomingBookingDto.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+
+        assertEquals("Аккумуляторная дрель", booking.getItem().getName());
+        assertEquals("user2", booking.getBooker().getName());
+        // booker, item and the insert, plus the sequence when a new block of ids is due
+        assertTrue(statistics.getPrepareStatementCount() <= 4, "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testCreateBookings_insertsValidEntriesInOneBatch() {
+        List<IncomingBookingDto> incomingBookingDtos = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            incomingBookingDtos.add(IncomingBookingDto.builder()
+                    .itemId(i % 2 == 0 ? 1L : 3L)
+                    .start(LocalDateTime.now().plusDays(i + 1))
+                    .end(LocalDateTime.now().plusDays(i + 2))
+                    .build());
+        }
+        incomingBookingDtos.add(IncomingBookingDto.builder()
+                .itemId(99L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(2L, incomingBookingDtos);
+
+        assertEquals(21, results.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(200, results.get(i).getStatus());
+            assertNotNull(results.get(i).getBooking().getId());
+            assertEquals(incomingBookingDtos.get(i).getItemId(), results.get(i).getBooking().getItem().getId());
+        }
+        assertEquals(404, results.get(20).getStatus());
+        assertNull(results.get(20).getBooking());
+        assertEquals(20, statistics.getEntityInsertCount());
+        // booker, items, one insert statement for the whole batch, plus the sequence when a new block of ids is due
+        assertTrue(statistics.getPrepareStatementCount() <= 4, "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testUpdateBookingApproval_concurrentApprovalsDoNotDoubleBook() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(10).withNano(0);
+        for (int i = 0; i < THREADS; i++) {
+            // every request overlaps every other one by at least an hour
+            jdbcTemplate.update("INSERT INTO bookings (start_time, end_time, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?)",
+                    start.plusMinutes(i), start.plusMinutes(i).plusHours(2), 3L, 1L, "WAITING");
+        }
+        List<Long> bookingIds = jdbcTemplate.queryForList(
+                "SELECT id FROM bookings WHERE status = 'WAITING' AND item_id = 3", Long.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.updateBookingApproval(bookingId, 4L, true);
+                    approved.incrementAndGet();
+                } catch (ConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        ready.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS, bookingIds.size());
+        assertEquals(1, approved.get());
+        assertEquals(THREADS - 1, conflicts.get());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE status = 'APPROVED' AND item_id = 3", Integer.class));
+    }
+
+    @Test
+    void testUpdateBookingApproval_updatesCachedAvailability() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+        LocalDateTime to = from.plusDays(3);
+        assertEquals(1, itemService.getAvailability(1L, 3L, from, to).size());
+
+        jdbcTemplate.update("INSERT INTO bookings (start_time, end_time, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?)",
+                from.plusDays(1), from.plusDays(2), 3L, 1L, "WAITING");
+        Long bookingId = jdbcTemplate.queryForObject("SELECT id FROM bookings WHERE status = 'WAITING' AND item_id = 3", Long.class);
+        bookingService.updateBookingApproval(bookingId, 4L, true);
+
+        statistics.clear();
+        List<AvailabilityIntervalDto> availability = itemService.getAvailability(1L, 3L, from, to);
+
+        assertEquals(3, availability.size());
+        assertEquals(from.plusDays(1), availability.get(1).getStart());
+        assertEquals(from.plusDays(2), availability.get(1).getEnd());
+        assertFalse(availability.get(1).getFree());
+        // user, item and calendar are all cached
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testExportBookingsByOwnerAndState_streamsEveryBookingInOneQuery() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            rows.add(new Object[]{100L + i, start.plusMinutes(i), start.plusMinutes(i + 1), 2L, 1L + i % 7, "WAITING"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, start_time, end_time, item_id, booker_id, status)"
+                + " VALUES (?, ?, ?, ?, ?, ?)", rows);
+        statistics.clear();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bookingService.exportBookingsByOwnerAndState(4L, "ALL").writeTo(outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2_005, lines.length);
+        assertTrue(lines[0].contains("\"id\":2099"), lines[0]);
+        // user check and the cursor, clearing the persistence context on the way does not cause any reloads
+        assertEquals(2, statistics.getPrepareStatementCount());
+        // only the user check goes through the second-level cache, bookers and items read by the export do not
+        assertEquals(1, statistics.getSecondLevelCachePutCount());
+    }
+
+    // test data only holds past bookings; item 3 of user 4 gets a current and a future one, both booked by user 1
+    private void addCurrentAndFutureBookings() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        jdbcTemplate.update("INSERT INTO bookings (id, start_time, end_time, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?, ?)",
+                20L, now.minusDays(1), now.plusDays(1), 3L, 1L, "APPROVED");
+        jdbcTemplate.update("INSERT INTO bookings (id, start_time, end_time, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?, ?)",
+                21L, now.plusDays(2), now.plusDays(3), 3L, 1L, "WAITING");
+    }
+
+    private static List<Long> bookingIds(List<OutgoingBookingDto> bookings) {
+        return bookings.stream().map(OutgoingBookingDto::getId).collect(Collectors.toList());
+    }
+}
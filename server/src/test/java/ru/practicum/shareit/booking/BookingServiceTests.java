@@ -6,24 +6,31 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.IncomingBookingDto;
 import ru.practicum.shareit.booking.dto.OutgoingBookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingCalendar;
+import ru.practicum.shareit.booking.service.BookingExport;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.booking.storage.BookingRepository;
-import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.KeysetCursor;
+import ru.practicum.shareit.util.exception.ConflictException;
 import ru.practicum.shareit.util.exception.NotFoundException;
 import ru.practicum.shareit.util.exception.ValidationException;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
@@ -51,10 +58,13 @@ class BookingServiceTests {
     private UserRepository userRepository;
 
     @Mock
-    private ItemService itemService;
+    private ItemRepository itemRepository;
 
     @Mock
-    private ItemRepository itemRepository;
+    private BookingCalendar bookingCalendar;
+
+    @Mock
+    private BookingExport bookingExport;
 
     private User user;
 
@@ -65,7 +75,6 @@ class BookingServiceTests {
     private IncomingBookingDto incomingBookingDto;
     private Booking booking;
     private OutgoingBookingDto outgoingBookingDto;
-    private ItemWithBookingsDto itemDto;
 
     @BeforeEach
     void setUp() {
@@ -82,6 +91,7 @@ class BookingServiceTests {
         item = new Item();
         item.setId(2L);
         item.setOwner(user);
+        item.setIsAvailable(true);
 
         incomingBookingDto = IncomingBookingDto.builder()
                 .itemId(2L)
@@ -100,19 +110,12 @@ class BookingServiceTests {
                 .id(3L)
                 .build();
 
-        itemDto = ItemWithBookingsDto
-                .builder()
-                .id(2L)
-                .available(true)
-                .build();
-
     }
 
     @Test
     void testCreateBooking_success() {
-        when(itemService.findById(incomingBookingDto.getItemId(), booker.getId())).thenReturn(itemDto);
-        when(itemRepository.findById(incomingBookingDto.getItemId())).thenReturn(Optional.of(item));
         when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(incomingBookingDto.getItemId())).thenReturn(Optional.of(item));
         when(bookingDtoMapper.toBooking(any(IncomingBookingDto.class), any(Item.class), any(User.class))).thenReturn(booking);
         when(bookingRepository.save(booking)).thenReturn(booking);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
@@ -124,23 +127,17 @@ class BookingServiceTests {
 
     @Test
     void testCreateBooking_itemNotAvailable() {
-        itemDto.setAvailable(false);
-        when(itemService.findById(incomingBookingDto.getItemId(), user.getId())).thenReturn(itemDto);
+        item.setIsAvailable(false);
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(itemRepository.findById(incomingBookingDto.getItemId())).thenReturn(Optional.of(item));
 
         assertThrows(ValidationException.class, () -> bookingService.createBooking(user.getId(), incomingBookingDto));
     }
 
     @Test
     void testCreateBooking_bookerIsOwnerOfItem() {
-
-        itemDto = ItemWithBookingsDto.builder()
-                .id(item.getId())
-                .available(true)
-                .build();
-
-        when(itemService.findById(incomingBookingDto.getItemId(), user.getId())).thenReturn(itemDto);
-        when(itemRepository.findById(incomingBookingDto.getItemId())).thenReturn(Optional.of(item));
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(itemRepository.findById(incomingBookingDto.getItemId())).thenReturn(Optional.of(item));
 
         // Set the itemId in the incomingBookingDto to the itemOwnedByBooker's id
         incomingBookingDto.setItemId(item.getId());
@@ -148,16 +145,56 @@ class BookingServiceTests {
         assertThrows(NotFoundException.class, () -> bookingService.createBooking(user.getId(), incomingBookingDto));
     }
 
+    @Test
+    void testCreateBooking_userNotFound() {
+        when(userRepository.findById(booker.getId())).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.createBooking(booker.getId(), incomingBookingDto));
+        verifyNoInteractions(itemRepository, bookingRepository);
+    }
+
+    @Test
+    void testCreateBooking_itemNotFound() {
+        when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(incomingBookingDto.getItemId())).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.createBooking(booker.getId(), incomingBookingDto));
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     void testUpdateBookingApproval_success() {
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.save(booking)).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(booking)).thenReturn(booking);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         OutgoingBookingDto result = bookingService.updateBookingApproval(booking.getId(), user.getId(), true);
 
         assertEquals(outgoingBookingDto.getId(), result.getId());
+        verify(bookingCalendar).onApproved(booking);
+    }
+
+    @Test
+    void testUpdateBookingApproval_overlappingApproval() {
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(bookingRepository.saveAndFlush(booking)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThrows(ConflictException.class, () -> bookingService.updateBookingApproval(booking.getId(), user.getId(), true));
+        verifyNoInteractions(bookingCalendar);
+    }
+
+    @Test
+    void testUpdateBookingApproval_otherIntegrityViolation() {
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(bookingRepository.saveAndFlush(booking)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("null value in column", "23502")));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> bookingService.updateBookingApproval(booking.getId(), user.getId(), true));
     }
 
     @Test
@@ -203,7 +240,7 @@ class BookingServiceTests {
     void testGetBookingsByState_success() {
         List<Booking> bookings = Collections.singletonList(booking);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllByBookerIdOrderByStartTimeDesc(any(), any())).thenReturn(bookings);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         List<OutgoingBookingDto> results = bookingService.getBookingsByState(user.getId(), "ALL", 0, 1);
@@ -216,7 +253,7 @@ class BookingServiceTests {
     void testGetBookingsByState_current() {
         List<Booking> bookings = Collections.singletonList(booking);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllByBookerIdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(any(), any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         List<OutgoingBookingDto> results = bookingService.getBookingsByState(user.getId(), "CURRENT", 0, 1);
@@ -229,7 +266,7 @@ class BookingServiceTests {
     void testGetBookingsByState_past() {
         List<Booking> bookings = Collections.singletonList(booking);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllByBookerIdAndEndTimeBeforeOrderByStartTimeDesc(any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         List<OutgoingBookingDto> results = bookingService.getBookingsByState(user.getId(), "PAST", 0, 1);
@@ -242,7 +279,7 @@ class BookingServiceTests {
     void testGetBookingsByState_future() {
         List<Booking> bookings = Collections.singletonList(booking);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllByBookerIdAndStartTimeAfterOrderByStartTimeDesc(any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         List<OutgoingBookingDto> results = bookingService.getBookingsByState(user.getId(), "FUTURE", 0, 1);
@@ -255,7 +292,7 @@ class BookingServiceTests {
     void testGetBookingsByState_waiting() {
         List<Booking> bookings = Collections.singletonList(booking);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartTimeDesc(any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         List<OutgoingBookingDto> results = bookingService.getBookingsByState(user.getId(), "WAITING", 0, 1);
@@ -268,7 +305,7 @@ class BookingServiceTests {
     void testGetBookingsByState_rejected() {
         List<Booking> bookings = Collections.singletonList(booking);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartTimeDesc(any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         List<OutgoingBookingDto> results = bookingService.getBookingsByState(user.getId(), "REJECTED", 0, 1);
@@ -286,7 +323,7 @@ class BookingServiceTests {
     void testGetBookingsByOwnerAndState_success() {
         List<Booking> bookings = Collections.singletonList(booking);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllByItemOwnerIdOrderByStartTimeDesc(any(), any())).thenReturn(bookings);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         List<OutgoingBookingDto> results = bookingService.getBookingsByOwnerAndState(user.getId(), "ALL", 0, 1);
@@ -299,7 +336,7 @@ class BookingServiceTests {
     void testGetBookingsByOwnerAndState_past() {
         List<Booking> bookings = Collections.singletonList(booking);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllByItemOwnerIdAndEndTimeBeforeOrderByStartTimeDesc(any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         List<OutgoingBookingDto> results = bookingService.getBookingsByOwnerAndState(user.getId(), "PAST", 0, 1);
@@ -312,7 +349,7 @@ class BookingServiceTests {
     void testGetBookingsByOwnerAndState_future() {
         List<Booking> bookings = Collections.singletonList(booking);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllByItemOwnerIdAndStartTimeAfterOrderByStartTimeDesc(any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         List<OutgoingBookingDto> results = bookingService.getBookingsByOwnerAndState(user.getId(), "FUTURE", 0, 1);
@@ -325,7 +362,7 @@ class BookingServiceTests {
     void testGetBookingsByOwnerAndState_waiting() {
         List<Booking> bookings = Collections.singletonList(booking);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartTimeDesc(any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         List<OutgoingBookingDto> results = bookingService.getBookingsByOwnerAndState(user.getId(), "WAITING", 0, 1);
@@ -338,7 +375,7 @@ class BookingServiceTests {
     void testGetBookingsByOwnerAndState_rejected() {
         List<Booking> bookings = Collections.singletonList(booking);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartTimeDesc(any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
         when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
 
         List<OutgoingBookingDto> results = bookingService.getBookingsByOwnerAndState(user.getId(), "REJECTED", 0, 1);
@@ -352,5 +389,52 @@ class BookingServiceTests {
         assertThrows(ValidationException.class, () -> bookingService.getBookingsByOwnerAndState(user.getId(), "UNKNOWN", 0, 1));
     }
 
-}
+    @Test
+    void testGetBookingsByStateAfter_success() {
+        List<Booking> bookings = Collections.singletonList(booking);
+        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(bookingRepository.findAll(any(), eq(0), eq(1))).thenReturn(bookings);
+        when(bookingDtoMapper.toDto(booking)).thenReturn(outgoingBookingDto);
+
+        List<OutgoingBookingDto> results = bookingService.getBookingsByStateAfter(user.getId(), "ALL",
+                new KeysetCursor(LocalDateTime.now(), 5L), 1);
+
+        assertEquals(1, results.size());
+        assertEquals(outgoingBookingDto.getId(), results.get(0).getId());
+    }
+
+    @Test
+    void testGetBookingsByOwnerAndStateAfter_unknownState() {
+        when(userService.findById(user.getId())).thenReturn(userDto);
+
+        assertThrows(ValidationException.class, () -> bookingService.getBookingsByOwnerAndStateAfter(user.getId(),
+                "UNKNOWN", null, 1));
+    }
+
+    @Test
+    void testExportBookingsByOwnerAndState_writesOnlyWhenBodyIsWritten() throws Exception {
+        when(userService.findById(user.getId())).thenReturn(userDto);
+
+        StreamingResponseBody body = bookingService.exportBookingsByOwnerAndState(user.getId(), "ALL");
+        verifyNoInteractions(bookingExport);
 
+        OutputStream outputStream = new ByteArrayOutputStream();
+        body.writeTo(outputStream);
+        verify(bookingExport).write(any(), eq(outputStream));
+    }
+
+    @Test
+    void testExportBookingsByState_unknownState() {
+        when(userService.findById(user.getId())).thenReturn(userDto);
+
+        assertThrows(ValidationException.class, () -> bookingService.exportBookingsByState(user.getId(), "UNKNOWN"));
+    }
+
+    @Test
+    void testExportBookingsByState_userNotFound() {
+        when(userService.findById(user.getId())).thenThrow(new NotFoundException("User not found"));
+
+        assertThrows(NotFoundException.class, () -> bookingService.exportBookingsByState(user.getId(), "ALL"));
+        verifyNoInteractions(bookingExport);
+    }
+}
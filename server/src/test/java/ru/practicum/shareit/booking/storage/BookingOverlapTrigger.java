@@ -0,0 +1,45 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// H2 stand-in for the bookings_no_overlapping_approved exclusion constraint: locks the item row, so writers of
+// the same item are serialized like under the gist index, and fails with the same SQLSTATE as PostgreSQL
+public class BookingOverlapTrigger implements Trigger {
+
+    private static final int ID = 0;
+    private static final int START_TIME = 1;
+    private static final int END_TIME = 2;
+    private static final int ITEM_ID = 3;
+    private static final int STATUS = 5;
+
+    @Override
+    public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (newRow == null || !"APPROVED".equals(newRow[STATUS])) {
+            return;
+        }
+
+        try (PreparedStatement lock = connection.prepareStatement("SELECT id FROM items WHERE id = ? FOR UPDATE")) {
+            lock.setObject(1, newRow[ITEM_ID]);
+            lock.executeQuery().close();
+        }
+
+        try (PreparedStatement overlapping = connection.prepareStatement("SELECT 1 FROM bookings "
+                + "WHERE item_id = ? AND status = 'APPROVED' AND id <> ? AND start_time < ? AND end_time > ?")) {
+            overlapping.setObject(1, newRow[ITEM_ID]);
+            overlapping.setObject(2, newRow[ID] == null ? -1L : newRow[ID]);
+            overlapping.setObject(3, newRow[END_TIME]);
+            overlapping.setObject(4, newRow[START_TIME]);
+            try (ResultSet resultSet = overlapping.executeQuery()) {
+                if (resultSet.next()) {
+                    throw new SQLException("conflicting key value violates exclusion constraint "
+                            + "\"bookings_no_overlapping_approved\"", "23P01");
+                }
+            }
+        }
+    }
+}
@@ -5,10 +5,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlGroup;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -24,6 +26,9 @@ public class ItemControllerIntegrationTests {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
 
     @Test
     public void testFindAllItems() throws Exception {
@@ -88,6 +93,32 @@ public class ItemControllerIntegrationTests {
                 .andExpect(jsonPath("$[0].description").value("Аккумуляторная дрель + аккумулятор"));
     }
 
+    @Test
+    public void testSearchItemsSkipsUnavailable() throws Exception {
+        jdbcTemplate.update("UPDATE items SET is_available = false WHERE id = 1");
+
+        // item 1 matches by name only, item 2 by description only
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "аккумулятор")
+                        .param("from", "0")
+                        .param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(2L));
+    }
+
+    @Test
+    public void testSearchItemsMatchesWildcardsLiterally() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "%")
+                        .param("from", "0")
+                        .param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     public void testDeleteItemById() throws Exception {
         mockMvc.perform(delete("/items/5")
@@ -120,4 +151,128 @@ public class ItemControllerIntegrationTests {
                 .andExpect(jsonPath("$.comments[0].text").value("Test comment"))
                 .andExpect(jsonPath("$.comments[0].authorName").value("other"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetAvailability() throws Exception {
+        // item 2 has three approved bookings inside the window
+        mockMvc.perform(get("/items/2/availability")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "2023-04-30T20:00:00")
+                        .param("to", "2023-05-03T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(7))
+                .andExpect(jsonPath("$[0].start").value("2023-04-30T20:00:00"))
+                .andExpect(jsonPath("$[0].free").value(true))
+                .andExpect(jsonPath("$[1].start").value("2023-04-30T20:52:07"))
+                .andExpect(jsonPath("$[1].end").value("2023-04-30T20:52:08"))
+                .andExpect(jsonPath("$[1].free").value(false))
+                .andExpect(jsonPath("$[3].start").value("2023-04-30T21:52:00"))
+                .andExpect(jsonPath("$[3].free").value(false))
+                .andExpect(jsonPath("$[5].start").value("2023-05-01T20:52:00"))
+                .andExpect(jsonPath("$[5].end").value("2023-05-02T20:52:00"))
+                .andExpect(jsonPath("$[5].free").value(false))
+                .andExpect(jsonPath("$[6].end").value("2023-05-03T00:00:00"))
+                .andExpect(jsonPath("$[6].free").value(true));
+    }
+
+    @Test
+    public void testGetAvailabilityClipsBookingsToWindow() throws Exception {
+        mockMvc.perform(get("/items/2/availability")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "2023-05-02T00:00:00")
+                        .param("to", "2023-05-02T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].start").value("2023-05-02T00:00:00"))
+                .andExpect(jsonPath("$[0].end").value("2023-05-02T12:00:00"))
+                .andExpect(jsonPath("$[0].free").value(false));
+    }
+
+    @Test
+    public void testGetAvailabilityWithInvalidPeriod() throws Exception {
+        mockMvc.perform(get("/items/2/availability")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "2023-05-02T00:00:00")
+                        .param("to", "2023-05-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetAvailabilityOfUnknownItem() throws Exception {
+        mockMvc.perform(get("/items/99/availability")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "2023-05-01T00:00:00")
+                        .param("to", "2023-05-02T00:00:00"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testFindItemByIdEmbedsLatestCommentsOnly() throws Exception {
+        addComments(3L, 25);
+
+        mockMvc.perform(get("/items/3")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments.length()").value(10))
+                .andExpect(jsonPath("$.comments[0].text").value("Comment 24"))
+                .andExpect(jsonPath("$.comments[9].text").value("Comment 15"))
+                .andExpect(jsonPath("$.commentCount").value(25));
+    }
+
+    @Test
+    public void testGetComments() throws Exception {
+        addComments(3L, 25);
+
+        String cursor = mockMvc.perform(get("/items/3/comments")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10))
+                .andExpect(jsonPath("$[0].text").value("Comment 24"))
+                .andExpect(jsonPath("$[0].authorName").value("other"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        cursor = mockMvc.perform(get("/items/3/comments")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", cursor)
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10))
+                .andExpect(jsonPath("$[0].text").value("Comment 14"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/items/3/comments")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", cursor)
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[4].text").value("Comment 0"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    public void testGetCommentsWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/items/3/comments")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetCommentsOfUnknownItem() throws Exception {
+        mockMvc.perform(get("/items/99/comments")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    // every other pair of comments shares a timestamp, so pages have to break ties by id
+    private void addComments(long itemId, int count) {
+        LocalDateTime created = LocalDateTime.of(2023, 5, 1, 12, 0);
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)",
+                    100L + i, "Comment " + i, itemId, 5L, created.plusMinutes(i / 2));
+        }
+    }
+}
@@ -107,7 +107,7 @@ public class ItemDtoMapperImplTest {
 
         List<CommentDto> comments = List.of(comment);
 
-        ItemWithBookingsDto itemWithBookingsDto = itemDtoMapper.toItemWithBookingsDto(item, lastBooking, nextBooking, comments);
+        ItemWithBookingsDto itemWithBookingsDto = itemDtoMapper.toItemWithBookingsDto(item, lastBooking, nextBooking, comments, 1L);
 
         assertThat(itemWithBookingsDto).isNotNull();
         assertThat(itemWithBookingsDto.getId()).isEqualTo(1L);
@@ -117,5 +117,6 @@ public class ItemDtoMapperImplTest {
         assertThat(itemWithBookingsDto.getNextBooking()).isNotNull();
         assertThat(itemWithBookingsDto.getLastBooking()).isNotNull();
         assertThat(itemWithBookingsDto.getComments()).isNotNull();
+        assertThat(itemWithBookingsDto.getCommentCount()).isEqualTo(1L);
     }
 }
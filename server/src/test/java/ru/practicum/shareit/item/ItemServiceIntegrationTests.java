@@ -0,0 +1,192 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlGroup;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.util.KeysetCursor;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@SqlGroup({
+        @Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:test-data.sql"),
+        @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean-data.sql")
+})
+public class ItemServiceIntegrationTests {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindAll_loadsBookingsAndCommentsForWholePage() {
+        jdbcTemplate.update("INSERT INTO bookings (id, start_time, end_time, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?, ?)",
+                9L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), 3L, 1L, "APPROVED");
+        statistics.clear();
+
+        List<ItemWithBookingsDto> items = itemService.findAll(4L, 0, 100);
+
+        assertEquals(2, items.size());
+
+        assertEquals(2L, items.get(0).getId());
+        assertEquals(2L, items.get(0).getLastBooking().getId());
+        assertNull(items.get(0).getNextBooking());
+        assertEquals(1, items.get(0).getComments().size());
+        assertEquals("updateName", items.get(0).getComments().get(0).getAuthorName());
+
+        assertEquals(3L, items.get(1).getId());
+        assertNull(items.get(1).getLastBooking());
+        assertEquals(9L, items.get(1).getNextBooking().getId());
+        assertEquals(1L, items.get(1).getNextBooking().getBookerId());
+        assertTrue(items.get(1).getComments().isEmpty());
+
+        // user check, items page, then the ranked comment ids, the comments and the bookings of the whole page;
+        // no item has a full list of comments, so nothing is counted
+        assertEquals(5, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindAll_embedsLatestCommentsInBoundedStatements() {
+        addComments(2L, 200);
+        statistics.clear();
+
+        List<ItemWithBookingsDto> items = itemService.findAll(4L, 0, 100);
+
+        assertEquals(10, items.get(0).getComments().size());
+        assertEquals("Comment 199", items.get(0).getComments().get(0).getText());
+        assertEquals(201L, items.get(0).getCommentCount());
+        assertTrue(items.get(1).getComments().isEmpty());
+        assertEquals(0L, items.get(1).getCommentCount());
+        // one more statement than above for the count of the full list, whatever the number of comments
+        assertEquals(6, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindById_isServedFromSecondLevelCache() {
+        // every repository call runs in its own transaction, so only the second-level cache can save the select
+        itemRepository.findById(2L);
+        itemRepository.findById(2L);
+        itemRepository.findById(2L);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void testAdd_evictsCachedItemsOfRequest() {
+        assertTrue(itemIdsOfRequest(1L).isEmpty());
+
+        ItemDto itemDto = itemService.add(2L, ItemDto.builder()
+                .name("Дрель")
+                .description("Ударная дрель")
+                .available(true)
+                .requestId(1L)
+                .build());
+
+        statistics.clear();
+        List<Long> itemIds = itemIdsOfRequest(1L);
+
+        assertEquals(List.of(itemDto.getId()), itemIds);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindById_embedsLatestCommentsInBoundedStatements() {
+        addComments(2L, 200);
+        statistics.clear();
+
+        ItemWithBookingsDto item = itemService.findById(2L, 1L);
+
+        assertEquals(10, item.getComments().size());
+        assertEquals(201L, item.getCommentCount());
+        // user, item, the latest comments with their authors and the count, whatever the number of comments
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetComments_loadsPageWithAuthorsInOneStatement() {
+        addComments(2L, 50);
+        List<CommentDto> firstPage = itemService.getComments(1L, 2L, null, 20);
+        statistics.clear();
+
+        List<CommentDto> secondPage = itemService.getComments(1L, 2L, KeysetCursor.of(firstPage.get(19).getCreated(), firstPage.get(19).getId()), 20);
+
+        assertEquals(20, secondPage.size());
+        assertEquals("Comment 29", secondPage.get(0).getText());
+        secondPage.forEach(comment -> assertEquals("other", comment.getAuthorName()));
+        // user and item come from the caches, authors are fetched with the page
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // the items of a request are lazy, so they are read inside a transaction of their own
+    @Test
+    void testGetComments_afterCursorRangeScansItemCreatedIndex() {
+        // the shape CommentRepository.findLatestByItemIdAfter produces
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT * FROM comments c WHERE c.item_id = 2"
+                + " AND c.created <= TIMESTAMP '2023-05-01 13:00:00'"
+                + " AND (c.created < TIMESTAMP '2023-05-01 13:00:00' OR (c.created = TIMESTAMP '2023-05-01 13:00:00' AND c.id < 160))"
+                + " ORDER BY c.created DESC, c.id DESC LIMIT 20", String.class);
+
+        // the index condition H2 prints between /* */ is the range scanned, not a filter applied afterwards
+        String indexCondition = plan.substring(plan.indexOf("/*"), plan.indexOf("*/"));
+        assertTrue(indexCondition.contains("IDX_COMMENTS_ITEM_CREATED"), plan);
+        assertTrue(indexCondition.contains("CREATED <="), plan);
+    }
+
+    private List<Long> itemIdsOfRequest(long requestId) {
+        return transactionTemplate.execute(status -> itemRequestRepository.findById(requestId)
+                .map(ItemRequest::getItems).orElseThrow().stream()
+                .map(Item::getId)
+                .collect(Collectors.toList()));
+    }
+
+    private void addComments(long itemId, int count) {
+        LocalDateTime created = LocalDateTime.of(2023, 5, 1, 12, 0);
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)",
+                    100L + i, "Comment " + i, itemId, 5L, created.plusMinutes(i));
+        }
+    }
+}
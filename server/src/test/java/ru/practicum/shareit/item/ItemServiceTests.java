@@ -107,15 +107,10 @@ class ItemServiceTests {
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(userService.findById(userId)).thenReturn(userDto);
 
-        when(bookingRepository.findFirstByItemIdAndStartTimeBeforeAndStatusOrderByStartTimeDesc(
-                eq(itemId), any(LocalDateTime.class), eq(BookingStatus.APPROVED)))
-                .thenReturn(Optional.empty());
+        when(bookingRepository.findLastAndNextApprovedByItemIds(eq(List.of(itemId)), any(LocalDateTime.class)))
+                .thenReturn(new ArrayList<>());
 
-        when(bookingRepository.findFirstByItemIdAndStartTimeAfterAndStatusOrderByStartTimeAsc(
-                eq(itemId), any(LocalDateTime.class), eq(BookingStatus.APPROVED)))
-                .thenReturn(Optional.empty());
-
-        when(commentRepository.findAllByItemIdOrderByCreatedDesc(itemId)).thenReturn(new ArrayList<>());
+        when(commentRepository.findLatestByItemId(eq(itemId), any(PageRequest.class))).thenReturn(new ArrayList<>());
 
         ItemWithBookingsDto expectedItemDto = ItemWithBookingsDto.builder()
                 .id(itemId)
@@ -123,10 +118,12 @@ class ItemServiceTests {
                 .description("Description")
                 .available(true)
                 .build();
-        when(itemDtoMapper.toItemWithBookingsDto(item, null, null, new ArrayList<>())).thenReturn(expectedItemDto);
+        when(itemDtoMapper.toItemWithBookingsDto(item, null, null, new ArrayList<>(), 0L)).thenReturn(expectedItemDto);
 
         ItemWithBookingsDto actualItemDto = itemService.findById(itemId, userId);
         assertEquals(expectedItemDto, actualItemDto);
+        // fewer comments than the embedded page, so there is nothing to count
+        verify(commentRepository, never()).countByItemId(itemId);
     }
 
     @Test
@@ -142,7 +139,7 @@ class ItemServiceTests {
         when(userService.findById(userId)).thenReturn(userDto);
 
         ItemWithBookingsDto expectedItemDto = ItemWithBookingsDto.builder().build();
-        when(itemDtoMapper.toItemWithBookingsDto(item, null, null, new ArrayList<>())).thenReturn(expectedItemDto);
+        when(itemDtoMapper.toItemWithBookingsDto(item, null, null, new ArrayList<>(), 0L)).thenReturn(expectedItemDto);
 
         List<Item> itemList = Collections.singletonList(item);
         when(itemRepository.findAllByOwnerIdOrderById(userId, PageRequest.of(0, 10))).thenReturn(itemList);
@@ -256,7 +253,7 @@ class ItemServiceTests {
         when(userService.findById(userId)).thenReturn(userDto);
         List<Item> itemList = new ArrayList<>();
         itemList.add(item);
-        when(itemRepository.findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndIsAvailable(anyString(), anyString(), anyBoolean(), any(PageRequest.class))).thenReturn(itemList);
+        when(itemRepository.search(anyString(), any(PageRequest.class))).thenReturn(itemList);
         when(itemDtoMapper.toItemDto(item)).thenReturn(ItemDto.builder().build());
 
         List<ItemDto> searchResults = itemService.search(userId, "searchQuery", 0, 10);
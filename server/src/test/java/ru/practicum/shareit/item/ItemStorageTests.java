@@ -7,8 +7,16 @@ import ru.practicum.shareit.item.storage.InMemoryItemStorage;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -94,6 +102,116 @@ public class ItemStorageTests {
         assertThat(actual).contains(testItem1, testItem2);
     }
 
+    @Test
+    public void searchIsCaseInsensitiveAndMatchesSubstringsTest() {
+        itemStorage.add(testItem1);
+        itemStorage.add(testItem2);
+        itemStorage.add(testItem3);
+
+        assertThat(itemStorage.search("ITEMNA")).containsExactly(testItem1, testItem2);
+        assertThat(itemStorage.search("Ond")).containsExactly(testItem2);
+        assertThat(itemStorage.search("h")).containsExactly(testItem3);
+        assertThat(itemStorage.search("itemnamedesc")).isEmpty();
+    }
+
+    @Test
+    public void searchSkipsUnavailableTest() {
+        testItem2.setIsAvailable(false);
+        itemStorage.add(testItem1);
+        itemStorage.add(testItem2);
+
+        assertThat(itemStorage.search("item")).containsExactly(testItem1);
+    }
+
+    @Test
+    public void searchAfterUpdateTest() {
+        itemStorage.add(testItem1);
+
+        testItem1.setName("hammer");
+        testItem1.setDescription("heavy");
+        itemStorage.update(1L, testItem1);
+
+        assertThat(itemStorage.search("item")).isEmpty();
+        assertThat(itemStorage.search("hamm")).containsExactly(testItem1);
+    }
+
+    @Test
+    public void searchAfterDeleteTest() {
+        itemStorage.add(testItem1);
+        itemStorage.add(testItem2);
+
+        itemStorage.delete(1L);
+
+        assertThat(itemStorage.search("itemname")).containsExactly(testItem2);
+    }
+
+    @Test
+    public void concurrentAddUpdateDeleteTest() throws Exception {
+        int threads = 8;
+        int itemsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // every thread adds items for its own owner, moves every second one to owner 0 and deletes every third
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 1; t <= threads; t++) {
+            long ownerId = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < itemsPerThread; i++) {
+                    Item item = newItem("item " + ownerId + " " + i, ownerId);
+                    long itemId = itemStorage.add(item).getId();
+                    itemStorage.search("item " + ownerId);
+                    if (i % 2 == 0) {
+                        Item moved = newItem("moved", 0L);
+                        moved.setId(itemId);
+                        itemStorage.update(itemId, moved);
+                    }
+                    if (i % 3 == 0) {
+                        itemStorage.delete(itemId);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // i % 2 != 0 && i % 3 != 0 stay with their owner, i % 2 == 0 && i % 3 != 0 are moved
+        long kept = IntStream.range(0, itemsPerThread).filter(i -> i % 2 != 0 && i % 3 != 0).count();
+        long moved = IntStream.range(0, itemsPerThread).filter(i -> i % 2 == 0 && i % 3 != 0).count();
+
+        Set<Long> ids = new HashSet<>();
+        for (long ownerId = 1; ownerId <= threads; ownerId++) {
+            List<Item> owned = itemStorage.findAllByOwnerId(ownerId);
+            assertThat(owned).hasSize((int) kept);
+            assertThat(itemStorage.search("item " + ownerId + " ")).hasSize((int) kept);
+            owned.forEach(item -> ids.add(item.getId()));
+        }
+        List<Item> movedItems = itemStorage.findAllByOwnerId(0L);
+        assertThat(movedItems).hasSize((int) moved * threads);
+        assertThat(itemStorage.search("moved")).hasSize((int) moved * threads);
+        movedItems.forEach(item -> ids.add(item.getId()));
+
+        assertThat(ids).hasSize((int) (kept + moved) * threads);
+    }
+
+    private Item newItem(String name, long ownerId) {
+        User owner = new User();
+        owner.setId(ownerId);
+
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name);
+        item.setIsAvailable(true);
+        item.setOwner(owner);
+        return item;
+    }
+
     private void testInit() {
         User testUser1 = new User();
         testUser1.setId(1L);
@@ -5,10 +5,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlGroup;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -24,6 +26,9 @@ public class ItemRequestControllerIntegrationTests {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     public void testFindAllItemRequests() throws Exception {
 
@@ -47,7 +52,7 @@ public class ItemRequestControllerIntegrationTests {
                         .content("{\"description\": \"item request description\"}"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.id").value(2L))
+                .andExpect(jsonPath("$.id").isNumber())
                 .andExpect(jsonPath("$.description").value("item request description"));
     }
 
@@ -61,5 +66,85 @@ public class ItemRequestControllerIntegrationTests {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.error").value("User with id=99 not found"));
     }
-}
 
+    @Test
+    public void testGetOtherUsersItemRequestsByOffset() throws Exception {
+        addItemRequests(5);
+
+        // from is an offset, so the second page of two starts with the third newest request
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "2")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].description").value("Request 2"))
+                .andExpect(jsonPath("$[1].description").value("Request 1"));
+    }
+
+    @Test
+    public void testGetOtherUsersItemRequestsByUnalignedOffset() throws Exception {
+        addItemRequests(5);
+
+        // an offset of 1 with pages of 2 skips just the newest request
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "1")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].description").value("Request 3"))
+                .andExpect(jsonPath("$[1].description").value("Request 2"));
+    }
+
+    @Test
+    public void testGetOtherUsersItemRequestsByCursor() throws Exception {
+        addItemRequests(5);
+
+        String cursor = mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].description").value("Request 4"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        cursor = mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", cursor)
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].description").value("Request 2"))
+                .andExpect(jsonPath("$[1].description").value("Request 1"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        // the request of user 1 is not part of their own feed
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", cursor)
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].description").value("Request 0"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    public void testGetOtherUsersItemRequestsWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", "2023-05-01T12:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // requests 1 and 2 share a timestamp, so pages have to break ties by id
+    private void addItemRequests(int count) {
+        LocalDateTime created = LocalDateTime.of(2023, 5, 1, 12, 0);
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("INSERT INTO requests (id, description, created, author_id) VALUES (?, ?, ?, ?)",
+                    100L + i, "Request " + i, created.plusMinutes(i == 2 ? 1 : i), 2L);
+        }
+    }
+}
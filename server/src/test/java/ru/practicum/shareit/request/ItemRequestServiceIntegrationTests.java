@@ -0,0 +1,109 @@
+package ru.practicum.shareit.request;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlGroup;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.util.KeysetCursor;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@SqlGroup({
+        @Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:test-data.sql"),
+        @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean-data.sql")
+})
+public class ItemRequestServiceIntegrationTests {
+
+    private static final int REQUESTS = 100;
+
+    // user check, the requests, then one query for the items of all of them
+    private static final long STATEMENTS_PER_PAGE = 3;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // every request of user 2 gets two items from different owners
+        LocalDateTime created = LocalDateTime.of(2023, 5, 1, 12, 0);
+        for (int i = 0; i < REQUESTS; i++) {
+            jdbcTemplate.update("INSERT INTO requests (id, description, created, author_id) VALUES (?, ?, ?, ?)",
+                    100L + i, "Request " + i, created.plusMinutes(i), 2L);
+            jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id, request_id) VALUES (?, ?, ?, ?, ?, ?)",
+                    100L + 2 * i, "Item " + i, "First answer", true, 4L, 100L + i);
+            jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id, request_id) VALUES (?, ?, ?, ?, ?, ?)",
+                    101L + 2 * i, "Item " + i, "Second answer", true, 6L, 100L + i);
+        }
+        statistics.clear();
+    }
+
+    @Test
+    void testGetUserItemRequests_loadsItemsOfAllRequestsInOneStatement() {
+        List<ItemRequestDto> itemRequests = itemRequestService.getUserItemRequests(2L);
+
+        assertEquals(REQUESTS, itemRequests.size());
+        itemRequests.forEach(itemRequest -> {
+            assertEquals(2, itemRequest.getItems().size());
+            itemRequest.getItems().forEach(item -> assertEquals(itemRequest.getId(), item.getRequestId()));
+        });
+        assertEquals(STATEMENTS_PER_PAGE, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetOtherUsersItemRequests_loadsItemsOfAllRequestsInOneStatement() {
+        List<ItemRequestDto> itemRequests = itemRequestService.getOtherUsersItemRequests(1L, 0, REQUESTS);
+
+        assertEquals(REQUESTS, itemRequests.size());
+        itemRequests.forEach(itemRequest -> assertEquals(2, itemRequest.getItems().size()));
+        assertEquals(STATEMENTS_PER_PAGE, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetOtherUsersItemRequestsAfter_pagesNewestFirst() {
+        List<ItemRequestDto> firstPage = itemRequestService.getOtherUsersItemRequestsAfter(1L, null, 30);
+        KeysetCursor cursor = KeysetCursor.of(firstPage.get(29).getCreated(), firstPage.get(29).getId());
+        statistics.clear();
+
+        List<ItemRequestDto> secondPage = itemRequestService.getOtherUsersItemRequestsAfter(1L, cursor, 30);
+
+        assertEquals("Request 99", firstPage.get(0).getDescription());
+        assertEquals("Request 69", secondPage.get(0).getDescription());
+        assertEquals(30, secondPage.size());
+        // the requests from the cursor on and their items, the user check is cached since the first page
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetOtherUsersItemRequestsAfter_usesCreatedIndex() {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT * FROM requests r WHERE r.author_id <> 1"
+                + " AND r.created <= TIMESTAMP '2023-05-01 13:00:00'"
+                + " AND (r.created < TIMESTAMP '2023-05-01 13:00:00' OR (r.created = TIMESTAMP '2023-05-01 13:00:00' AND r.id < 160))"
+                + " ORDER BY r.created DESC, r.id DESC LIMIT 30", String.class);
+
+        // the index condition H2 prints between /* */ is the range scanned, not a filter applied afterwards
+        String indexCondition = plan.substring(plan.indexOf("/*"), plan.indexOf("*/"));
+        assertTrue(indexCondition.contains("IDX_REQUESTS_CREATED"), plan);
+        assertTrue(indexCondition.contains("CREATED <="), plan);
+    }
+}
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -15,6 +17,7 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.KeysetCursor;
 import ru.practicum.shareit.util.exception.NotFoundException;
 
 import java.time.LocalDateTime;
@@ -29,6 +32,9 @@ class ItemRequestServiceTests {
     @Mock
     private ItemRequestRepository itemRequestRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
     @Mock
     private ItemRequestDtoMapper itemRequestDtoMapper;
 
@@ -74,19 +80,42 @@ class ItemRequestServiceTests {
 
         List<ItemRequestDto> itemRequestDtos = itemRequestService.getUserItemRequests(1L);
         assertEquals(itemRequests.size(), itemRequestDtos.size());
+        verify(itemRepository).findAllByItemRequestIdIn(List.of(1L));
     }
 
     @Test
     void testGetOtherUsersItemRequests() {
         List<ItemRequest> itemRequests = Collections.singletonList(itemRequest);
         when(userService.findById(1L)).thenReturn(new UserDto(1L, "John Doe", "john.doe@example.com"));
-        when(itemRequestRepository.findAllByAuthorIdNot(eq(1L), any())).thenReturn(itemRequests);
+        when(itemRequestRepository.findAllByAuthorIdNot(1L, 0, 10)).thenReturn(itemRequests);
         when(itemRequestDtoMapper.toItemRequestDto(any(ItemRequest.class), any())).thenReturn(itemRequestDto);
 
         List<ItemRequestDto> itemRequestDtos = itemRequestService.getOtherUsersItemRequests(1L, 0, 10);
         assertEquals(itemRequests.size(), itemRequestDtos.size());
     }
 
+    @Test
+    void testGetOtherUsersItemRequests_fromIsAnOffset() {
+        when(userService.findById(1L)).thenReturn(new UserDto(1L, "John Doe", "john.doe@example.com"));
+
+        itemRequestService.getOtherUsersItemRequests(1L, 5, 10);
+
+        verify(itemRequestRepository).findAllByAuthorIdNot(1L, 5, 10);
+    }
+
+    @Test
+    void testGetOtherUsersItemRequestsAfter() {
+        LocalDateTime created = LocalDateTime.of(2023, 1, 1, 0, 0);
+        when(userService.findById(1L)).thenReturn(new UserDto(1L, "John Doe", "john.doe@example.com"));
+        when(itemRequestRepository.findAllByAuthorIdNotAfter(1L, created, 5L, PageRequest.of(0, 10)))
+                .thenReturn(Collections.singletonList(itemRequest));
+        when(itemRequestDtoMapper.toItemRequestDto(any(ItemRequest.class), any())).thenReturn(itemRequestDto);
+
+        List<ItemRequestDto> itemRequestDtos = itemRequestService.getOtherUsersItemRequestsAfter(1L,
+                new KeysetCursor(created, 5L), 10);
+        assertEquals(1, itemRequestDtos.size());
+    }
+
     @Test
     void testGetItemRequestById_found() {
         when(userService.findById(1L)).thenReturn(new UserDto(1L, "John Doe", "john.doe@example.com"));
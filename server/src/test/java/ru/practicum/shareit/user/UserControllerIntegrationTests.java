@@ -8,8 +8,12 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlGroup;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -33,7 +37,7 @@ public class UserControllerIntegrationTests {
                         .content("{\"name\": \"user name\", \"email\": \"user@email.com\"}"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.id").value(8L))
+                .andExpect(jsonPath("$.id").isNumber())
                 .andExpect(jsonPath("$.name").value("user name"))
                 .andExpect(jsonPath("$.email").value("user@email.com"));
     }
@@ -57,7 +61,6 @@ public class UserControllerIntegrationTests {
     public void testFindAllUsers() throws Exception {
 
         mockMvc.perform(get("/users")
-                        .param("from", "0")
                         .param("size", "100"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -66,6 +69,53 @@ public class UserControllerIntegrationTests {
                 .andExpect(jsonPath("$[0].email").value("updateName@user.com"));
     }
 
+    @Test
+    public void testFindAllUsersByCursor() throws Exception {
+
+        String cursor = mockMvc.perform(get("/users")
+                        .param("size", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[3].id").value(4L))
+                .andExpect(header().string("X-Next-Cursor", "4"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/users")
+                        .param("after", cursor)
+                        .param("size", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(5L))
+                .andExpect(jsonPath("$[2].id").value(7L))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    public void testFindAllUsersAboveMaxPageSize() throws Exception {
+
+        mockMvc.perform(get("/users")
+                        .param("size", "1001"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testExportUsers() throws Exception {
+
+        MvcResult result = mockMvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(7, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[6].startsWith("{\"id\":7,"));
+    }
+
     // test findUserById
     @Test
     public void testFindUserById() throws Exception {
@@ -78,6 +128,16 @@ public class UserControllerIntegrationTests {
                 .andExpect(jsonPath("$.email").value("updateName@user.com"));
     }
 
+    // test checkUserExists
+    @Test
+    public void testCheckUserExists() throws Exception {
+        mockMvc.perform(head("/users/1"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(head("/users/99"))
+                .andExpect(status().isNotFound());
+    }
+
     // test deleteUserById
     @Test
     public void testDeleteUserById() throws Exception {
@@ -72,7 +72,7 @@ public class UserControllerTests {
     @Test
     public void testFindAllUsers() throws Exception {
         List<UserDto> users = Arrays.asList(userDto1, userDto2);
-        when(userService.findAll()).thenReturn(users);
+        when(userService.findAll(null, 100)).thenReturn(users);
 
         mockMvc.perform(get("/users"))
                 .andExpect(status().isOk())
@@ -82,9 +82,23 @@ public class UserControllerTests {
                 .andExpect(jsonPath("$[0].email").value("user1@example.com"))
                 .andExpect(jsonPath("$[1].id").value(2L))
                 .andExpect(jsonPath("$[1].name").value("User 2"))
-                .andExpect(jsonPath("$[1].email").value("user2@example.com"));
+                .andExpect(jsonPath("$[1].email").value("user2@example.com"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
 
-        verify(userService, times(1)).findAll();
+        verify(userService, times(1)).findAll(null, 100);
+    }
+
+    @Test
+    public void testFindAllUsersAfterCursor() throws Exception {
+        when(userService.findAll(1L, 1)).thenReturn(List.of(userDto2));
+
+        // a full page hands out the id of its last user as the next cursor
+        mockMvc.perform(get("/users")
+                        .param("after", "1")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2L))
+                .andExpect(header().string("X-Next-Cursor", "2"));
     }
 
     @Test
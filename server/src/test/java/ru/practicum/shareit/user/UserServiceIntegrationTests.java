@@ -0,0 +1,105 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlGroup;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.CacheConfig;
+import ru.practicum.shareit.util.exception.NotFoundException;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@SqlGroup({
+        @Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:test-data.sql"),
+        @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:clean-data.sql")
+})
+public class UserServiceIntegrationTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindById_isCached() {
+        UserDto first = userService.findById(1L);
+        UserDto second = userService.findById(1L);
+
+        assertEquals(first, second);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", CacheConfig.USERS).tag("result", "hit")
+                .functionCounter().count() >= 1);
+    }
+
+    @Test
+    void testFindById_evictedOnUpdate() {
+        userService.findById(1L);
+
+        userService.update(1L, UserDto.builder().name("renamed").build());
+
+        assertEquals("renamed", userService.findById(1L).getName());
+    }
+
+    @Test
+    void testFindById_evictedOnlyAfterCommit() {
+        userService.findById(1L);
+        Cache users = cacheManager.getCache(CacheConfig.USERS);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.update(1L, UserDto.builder().name("renamed").build());
+            assertNotNull(users.get(1L));
+        });
+
+        assertNull(users.get(1L));
+    }
+
+    @Test
+    void testExistsById_evictedOnDelete() {
+        assertTrue(userService.existsById(7L));
+        userService.findById(7L);
+
+        userService.delete(7L);
+
+        assertFalse(userService.existsById(7L));
+        assertThrows(NotFoundException.class, () -> userService.findById(7L));
+    }
+
+    @Test
+    void testExistsById_missingUserIsNotCached() {
+        assertFalse(userService.existsById(99L));
+        assertFalse(userService.existsById(99L));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -6,13 +6,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExport;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 import ru.practicum.shareit.user.storage.UserRepository;
 import ru.practicum.shareit.util.exception.NotFoundException;
+import ru.practicum.shareit.util.exception.ValidationException;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +34,9 @@ class UserServiceTests {
     @Mock
     private UserDtoMapper userDtoMapper;
 
+    @Mock
+    private UserExport userExport;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -68,13 +75,37 @@ class UserServiceTests {
     @Test
     void testFindAll() {
         List<User> users = Arrays.asList(user, new User(2L, "Jane Doe", "jane.doe@example.com"));
-        when(userRepository.findAll()).thenReturn(users);
+        when(userRepository.findAllByIdGreaterThanOrderById(0L, PageRequest.of(0, 10))).thenReturn(users);
         when(userDtoMapper.toUserDto(any(User.class))).thenReturn(userDto);
 
-        List<UserDto> userDtos = userService.findAll();
+        List<UserDto> userDtos = userService.findAll(null, 10);
         assertEquals(users.size(), userDtos.size());
     }
 
+    @Test
+    void testFindAll_afterCursor() {
+        when(userRepository.findAllByIdGreaterThanOrderById(1L, PageRequest.of(0, 10))).thenReturn(List.of(user));
+        when(userDtoMapper.toUserDto(user)).thenReturn(userDto);
+
+        assertEquals(List.of(userDto), userService.findAll(1L, 10));
+    }
+
+    @Test
+    void testFindAll_invalidSize() {
+        assertThrows(ValidationException.class, () -> userService.findAll(null, 0));
+        assertThrows(ValidationException.class, () -> userService.findAll(null, UserServiceImpl.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testExport_writesOnceBodyIsStreamed() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        userService.export().writeTo(outputStream);
+
+        verify(userExport).write(outputStream);
+    }
+
     @Test
     void testAdd_validUser() {
         when(userDtoMapper.toUser(userDto)).thenReturn(user);
@@ -103,14 +134,20 @@ class UserServiceTests {
 
     @Test
     void testDelete_existingUser() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(1L)).thenReturn(true);
         userService.delete(1L);
         verify(userRepository).deleteById(1L);
     }
 
     @Test
     void testDelete_nonExistingUser() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(1L)).thenReturn(false);
         assertThrows(NotFoundException.class, () -> userService.delete(1L));
     }
+
+    @Test
+    void testExistsById() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        assertTrue(userService.existsById(1L));
+    }
 }
@@ -6,7 +6,15 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.InMemoryUserStorage;
 import ru.practicum.shareit.user.storage.UserStorage;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -76,6 +84,39 @@ public class UserStorageTests {
         assertThat(userStorage.findById(1L)).isNull();
     }
 
+    @Test
+    public void concurrentAddTest() throws Exception {
+        int threads = 8;
+        int usersPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < usersPerThread; i++) {
+                    User user = new User();
+                    user.setName("user");
+                    user.setEmail("user@example.com");
+                    ids.add(userStorage.add(user).getId());
+                }
+                return ids;
+            }));
+        }
+        start.countDown();
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<List<Long>> future : futures) {
+            ids.addAll(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertThat(ids).hasSize(threads * usersPerThread);
+        assertThat(userStorage.findAll()).hasSize(threads * usersPerThread);
+    }
+
     private void testInit() {
         testUser1 = new User();
         testUser1.setName("username");
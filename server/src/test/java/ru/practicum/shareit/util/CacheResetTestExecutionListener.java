@@ -0,0 +1,26 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+import javax.persistence.EntityManagerFactory;
+
+// test data is reloaded with plain SQL before every test, which neither the Spring caches nor the
+// Hibernate second-level cache can see, so both are emptied before each test method
+public class CacheResetTestExecutionListener extends AbstractTestExecutionListener {
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        if (!testContext.hasApplicationContext()) {
+            return;
+        }
+        ApplicationContext context = testContext.getApplicationContext();
+
+        context.getBeanProvider(CacheManager.class).ifAvailable(cacheManager ->
+                cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear()));
+        context.getBeanProvider(EntityManagerFactory.class).ifAvailable(entityManagerFactory ->
+                entityManagerFactory.getCache().evictAll());
+    }
+}
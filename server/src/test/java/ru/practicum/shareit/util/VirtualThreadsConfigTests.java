@@ -0,0 +1,28 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "shareit.threads=virtual")
+@EnabledIf("isVirtualThreadsSupported")
+public class VirtualThreadsConfigTests {
+
+    @Autowired
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Test
+    void testAsyncTasksRunOnVirtualThreads() throws Exception {
+        Thread thread = applicationTaskExecutor.submit(Thread::currentThread).get();
+
+        assertEquals(true, Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+
+    static boolean isVirtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+}